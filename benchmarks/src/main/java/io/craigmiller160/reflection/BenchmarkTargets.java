@@ -0,0 +1,426 @@
+package io.craigmiller160.reflection;
+
+/**
+ * Targets for the benchmarks. Each Handlers class has a different
+ * number of overloads of handle(), so lookup and resolution can be
+ * measured against classes with few or many candidates. Every overload
+ * takes a different marker type, and only handle(String) matches a
+ * String argument.
+ */
+public final class BenchmarkTargets {
+
+    private BenchmarkTargets(){}
+
+    /**
+     * Get a new handler with the provided number of overloads of handle().
+     *
+     * @param overloadCount the number of overloads, one of 1, 10 or 40.
+     * @return the handler.
+     */
+    public static StringHandler newHandlers(int overloadCount){
+        switch(overloadCount){
+            case 1:
+                return new Handlers1();
+            case 10:
+                return new Handlers10();
+            case 40:
+                return new Handlers40();
+            default:
+                throw new IllegalArgumentException("No handlers with " + overloadCount + " overloads");
+        }
+    }
+
+    /**
+     * Implemented by every Handlers class, so a direct call to
+     * handle(String) can be measured as a baseline.
+     */
+    public interface StringHandler {
+        int handle(String value);
+    }
+
+    public static final class Marker0 {}
+
+    public static final class Marker1 {}
+
+    public static final class Marker2 {}
+
+    public static final class Marker3 {}
+
+    public static final class Marker4 {}
+
+    public static final class Marker5 {}
+
+    public static final class Marker6 {}
+
+    public static final class Marker7 {}
+
+    public static final class Marker8 {}
+
+    public static final class Marker9 {}
+
+    public static final class Marker10 {}
+
+    public static final class Marker11 {}
+
+    public static final class Marker12 {}
+
+    public static final class Marker13 {}
+
+    public static final class Marker14 {}
+
+    public static final class Marker15 {}
+
+    public static final class Marker16 {}
+
+    public static final class Marker17 {}
+
+    public static final class Marker18 {}
+
+    public static final class Marker19 {}
+
+    public static final class Marker20 {}
+
+    public static final class Marker21 {}
+
+    public static final class Marker22 {}
+
+    public static final class Marker23 {}
+
+    public static final class Marker24 {}
+
+    public static final class Marker25 {}
+
+    public static final class Marker26 {}
+
+    public static final class Marker27 {}
+
+    public static final class Marker28 {}
+
+    public static final class Marker29 {}
+
+    public static final class Marker30 {}
+
+    public static final class Marker31 {}
+
+    public static final class Marker32 {}
+
+    public static final class Marker33 {}
+
+    public static final class Marker34 {}
+
+    public static final class Marker35 {}
+
+    public static final class Marker36 {}
+
+    public static final class Marker37 {}
+
+    public static final class Marker38 {}
+
+
+    public static final class Handlers1 implements StringHandler {
+
+        public int handle(String value){
+            return value.length();
+        }
+
+    }
+
+    public static final class Handlers10 implements StringHandler {
+
+        public int handle(String value){
+            return value.length();
+        }
+
+
+        public int handle(Marker0 value){
+            return 0;
+        }
+
+
+        public int handle(Marker1 value){
+            return 1;
+        }
+
+
+        public int handle(Marker2 value){
+            return 2;
+        }
+
+
+        public int handle(Marker3 value){
+            return 3;
+        }
+
+
+        public int handle(Marker4 value){
+            return 4;
+        }
+
+
+        public int handle(Marker5 value){
+            return 5;
+        }
+
+
+        public int handle(Marker6 value){
+            return 6;
+        }
+
+
+        public int handle(Marker7 value){
+            return 7;
+        }
+
+
+        public int handle(Marker8 value){
+            return 8;
+        }
+
+    }
+
+    public static final class Handlers40 implements StringHandler {
+
+        public int handle(String value){
+            return value.length();
+        }
+
+
+        public int handle(Marker0 value){
+            return 0;
+        }
+
+
+        public int handle(Marker1 value){
+            return 1;
+        }
+
+
+        public int handle(Marker2 value){
+            return 2;
+        }
+
+
+        public int handle(Marker3 value){
+            return 3;
+        }
+
+
+        public int handle(Marker4 value){
+            return 4;
+        }
+
+
+        public int handle(Marker5 value){
+            return 5;
+        }
+
+
+        public int handle(Marker6 value){
+            return 6;
+        }
+
+
+        public int handle(Marker7 value){
+            return 7;
+        }
+
+
+        public int handle(Marker8 value){
+            return 8;
+        }
+
+
+        public int handle(Marker9 value){
+            return 9;
+        }
+
+
+        public int handle(Marker10 value){
+            return 10;
+        }
+
+
+        public int handle(Marker11 value){
+            return 11;
+        }
+
+
+        public int handle(Marker12 value){
+            return 12;
+        }
+
+
+        public int handle(Marker13 value){
+            return 13;
+        }
+
+
+        public int handle(Marker14 value){
+            return 14;
+        }
+
+
+        public int handle(Marker15 value){
+            return 15;
+        }
+
+
+        public int handle(Marker16 value){
+            return 16;
+        }
+
+
+        public int handle(Marker17 value){
+            return 17;
+        }
+
+
+        public int handle(Marker18 value){
+            return 18;
+        }
+
+
+        public int handle(Marker19 value){
+            return 19;
+        }
+
+
+        public int handle(Marker20 value){
+            return 20;
+        }
+
+
+        public int handle(Marker21 value){
+            return 21;
+        }
+
+
+        public int handle(Marker22 value){
+            return 22;
+        }
+
+
+        public int handle(Marker23 value){
+            return 23;
+        }
+
+
+        public int handle(Marker24 value){
+            return 24;
+        }
+
+
+        public int handle(Marker25 value){
+            return 25;
+        }
+
+
+        public int handle(Marker26 value){
+            return 26;
+        }
+
+
+        public int handle(Marker27 value){
+            return 27;
+        }
+
+
+        public int handle(Marker28 value){
+            return 28;
+        }
+
+
+        public int handle(Marker29 value){
+            return 29;
+        }
+
+
+        public int handle(Marker30 value){
+            return 30;
+        }
+
+
+        public int handle(Marker31 value){
+            return 31;
+        }
+
+
+        public int handle(Marker32 value){
+            return 32;
+        }
+
+
+        public int handle(Marker33 value){
+            return 33;
+        }
+
+
+        public int handle(Marker34 value){
+            return 34;
+        }
+
+
+        public int handle(Marker35 value){
+            return 35;
+        }
+
+
+        public int handle(Marker36 value){
+            return 36;
+        }
+
+
+        public int handle(Marker37 value){
+            return 37;
+        }
+
+
+        public int handle(Marker38 value){
+            return 38;
+        }
+
+    }
+
+    /**
+     * Methods with fixed and varArgs params, for measuring
+     * validation and conversion at different argument counts.
+     */
+    public static final class ArgCounts {
+
+        public int fixed1(Object o1){
+            return 1;
+        }
+
+        public int fixed4(Object o1, Object o2, Object o3, Object o4){
+            return 4;
+        }
+
+        public int fixed8(Object o1, Object o2, Object o3, Object o4, Object o5, Object o6, Object o7, Object o8){
+            return 8;
+        }
+
+        public int varArgs(String first, String...rest){
+            return rest.length + 1;
+        }
+
+        /**
+         * Get the name of the fixed params method with the provided argument count.
+         */
+        public static String fixedName(int argCount){
+            return "fixed" + argCount;
+        }
+
+    }
+
+    /**
+     * Create an array of the provided number of String arguments.
+     */
+    public static Object[] stringArgs(int argCount){
+        Object[] args = new Object[argCount];
+        for(int i = 0; i < argCount; i++){
+            args[i] = "Arg" + i;
+        }
+        return args;
+    }
+
+}
@@ -0,0 +1,62 @@
+package io.craigmiller160.reflection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of findAndInvokeMethod() on 1, 4, and
+ * as many threads as there are cores, all sharing the same target
+ * and so the same cache entries. With lock-free lookups, total
+ * throughput should grow with the thread count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentDispatchBenchmark {
+
+    @Param({"1", "10"})
+    public int overloadCount;
+
+    private BenchmarkTargets.StringHandler target;
+    private String arg;
+
+    @Setup
+    public void setup(){
+        target = BenchmarkTargets.newHandlers(overloadCount);
+        arg = "Value";
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object findAndInvoke1Thread() throws Exception{
+        return FindAndInvoke.findAndInvokeMethod(target, "handle", arg);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object findAndInvoke4Threads() throws Exception{
+        return FindAndInvoke.findAndInvokeMethod(target, "handle", arg);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object findAndInvokeMaxThreads() throws Exception{
+        return FindAndInvoke.findAndInvokeMethod(target, "handle", arg);
+    }
+
+}
@@ -0,0 +1,68 @@
+package io.craigmiller160.reflection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures findAndInvokeMethod() end to end, on a single target and
+ * on several targets, against a direct call and a raw Method.invoke()
+ * of the same method.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FindAndInvokeBenchmark {
+
+    @Param({"1", "10", "40"})
+    public int overloadCount;
+
+    private BenchmarkTargets.StringHandler target;
+    private Object[] targets;
+    private Method method;
+    private String arg;
+
+    @Setup
+    public void setup() throws Exception{
+        target = BenchmarkTargets.newHandlers(overloadCount);
+        //The matching target is last, so every other target is searched first
+        targets = new Object[]{new BenchmarkTargets.ArgCounts(), BenchmarkTargets.newHandlers(1), target};
+        method = target.getClass().getMethod("handle", String.class);
+        arg = "Value";
+    }
+
+    @Benchmark
+    public int directCall(){
+        return target.handle(arg);
+    }
+
+    @Benchmark
+    public Object methodInvoke() throws Exception{
+        return method.invoke(target, arg);
+    }
+
+    @Benchmark
+    public Object findAndInvokeSingle() throws Exception{
+        return FindAndInvoke.findAndInvokeMethod(target, "handle", arg);
+    }
+
+    @Benchmark
+    public Object findAndInvokeMultiple() throws Exception{
+        return FindAndInvoke.findAndInvokeMethod(targets, "handle", arg);
+    }
+
+}
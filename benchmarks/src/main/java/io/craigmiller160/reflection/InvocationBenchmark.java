@@ -0,0 +1,71 @@
+package io.craigmiller160.reflection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares invoking an already resolved Method through
+ * Method.invoke() against invoking it through its cached
+ * MethodInvoker, with a direct call as the baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InvocationBenchmark {
+
+    private Target target;
+    private Method method;
+    private MethodInvoker invoker;
+    private Object[] params;
+
+    @Setup
+    public void setup() throws Exception{
+        target = new Target();
+        method = Target.class.getMethod("concat", String.class, Integer.class);
+        invoker = MethodInvoker.forMethod(method);
+        params = new Object[]{"One", 2};
+    }
+
+    @Benchmark
+    public Object directCall(){
+        return target.concat((String) params[0], (Integer) params[1]);
+    }
+
+    @Benchmark
+    public Object methodInvoke() throws Exception{
+        return method.invoke(target, params);
+    }
+
+    @Benchmark
+    public Object methodInvoker() throws Exception{
+        return invoker.invoke(target, params);
+    }
+
+    @Benchmark
+    public Object findAndInvoke() throws Exception{
+        return FindAndInvoke.findAndInvokeMethod(target, "concat", params);
+    }
+
+    public static class Target {
+
+        public String concat(String s, Integer i){
+            return s + i;
+        }
+
+    }
+
+}
@@ -0,0 +1,59 @@
+package io.craigmiller160.reflection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding the candidate methods for a name, through
+ * the cached index, against scanning Class.getMethods() the way
+ * it was done before the index existed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LookupBenchmark {
+
+    @Param({"1", "10", "40"})
+    public int overloadCount;
+
+    private Object target;
+
+    @Setup
+    public void setup(){
+        target = BenchmarkTargets.newHandlers(overloadCount);
+    }
+
+    @Benchmark
+    public List<ObjectAndMethod> potentialMatchesFromSingle(){
+        return FindAndInvoke.getPotentialMatchesFromSingle("handle", target);
+    }
+
+    @Benchmark
+    public List<ObjectAndMethod> scanGetMethods(){
+        List<ObjectAndMethod> matches = new ArrayList<>();
+        for(Method m : target.getClass().getMethods()){
+            if(m.getName().equals("handle")){
+                matches.add(new ObjectAndMethod(target, m));
+            }
+        }
+        return matches;
+    }
+
+}
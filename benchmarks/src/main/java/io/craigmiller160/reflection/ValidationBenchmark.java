@@ -0,0 +1,65 @@
+package io.craigmiller160.reflection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures MethodUtils.isValidInvocation() and
+ * convertParamsForVarArgsMethod() at different argument counts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationBenchmark {
+
+    @Param({"1", "4", "8"})
+    public int argCount;
+
+    private Method fixedMethod;
+    private Method varArgsMethod;
+    private Object[] args;
+
+    @Setup
+    public void setup() throws Exception{
+        for(Method m : BenchmarkTargets.ArgCounts.class.getMethods()){
+            if(m.getName().equals(BenchmarkTargets.ArgCounts.fixedName(argCount))){
+                fixedMethod = m;
+            }
+            else if(m.getName().equals("varArgs")){
+                varArgsMethod = m;
+            }
+        }
+        args = BenchmarkTargets.stringArgs(argCount);
+    }
+
+    @Benchmark
+    public boolean validateFixed(){
+        return MethodUtils.isValidInvocation(fixedMethod, args);
+    }
+
+    @Benchmark
+    public boolean validateVarArgs(){
+        return MethodUtils.isValidInvocation(varArgsMethod, args);
+    }
+
+    @Benchmark
+    public Object[] convertVarArgs(){
+        return MethodUtils.convertParamsForVarArgsMethod(varArgsMethod, args);
+    }
+
+}
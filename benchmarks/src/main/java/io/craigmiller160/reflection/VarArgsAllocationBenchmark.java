@@ -0,0 +1,79 @@
+package io.craigmiller160.reflection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the garbage produced by validating and converting
+ * params for a varArgs method. Run with "-prof gc" and compare
+ * the gc.alloc.rate.norm values. Validation through the public
+ * Method-based API should only allocate the copy made by
+ * Method.getParameterTypes(), and the buffered conversion should
+ * only add the varArgs array itself on top of that.
+ *
+ *     java -jar target/benchmarks.jar VarArgsAllocationBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VarArgsAllocationBenchmark {
+
+    private Method method;
+    private Object[] params;
+    private Object[] buffer;
+
+    @Setup
+    public void setup() throws Exception{
+        method = Target.class.getMethod("join", String.class, String[].class);
+        params = new Object[]{"-", "One", "Two", "Three"};
+        buffer = new Object[2];
+    }
+
+    @Benchmark
+    public boolean validate(){
+        return MethodUtils.isValidInvocation(method, params);
+    }
+
+    @Benchmark
+    public Object[] convert(){
+        return MethodUtils.convertParamsForVarArgsMethod(method, params);
+    }
+
+    @Benchmark
+    public Object[] convertWithBuffer(){
+        Object[] result = MethodUtils.convertParamsForVarArgsMethod(method, buffer, params);
+        Arrays.fill(buffer, null);
+        return result;
+    }
+
+    @Benchmark
+    public Object findAndInvoke() throws Exception{
+        return FindAndInvoke.findAndInvokeMethod(Target.INSTANCE, "join", params);
+    }
+
+    public static class Target {
+
+        static final Target INSTANCE = new Target();
+
+        public int join(String separator, String...values){
+            return separator.length() + values.length;
+        }
+
+    }
+
+}
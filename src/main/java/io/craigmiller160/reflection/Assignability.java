@@ -0,0 +1,105 @@
+package io.craigmiller160.reflection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decides whether an argument of one class can be passed to
+ * a parameter of another type, and caches the answer. This is
+ * the same as Class.isAssignableFrom(), except that primitive
+ * parameters accept their boxed types, and the boxed types of any
+ * primitive they can be widened to, exactly as Method.invoke()
+ * accepts them.
+ *
+ * Answers are cached in a ClassValue on the argument class, so
+ * the cache is released along with the argument class. A parameter
+ * type is only cached against an argument class if that can't keep
+ * the parameter type's ClassLoader alive any longer than the argument
+ * class already does, which is when the parameter type comes from the
+ * same ClassLoader as the argument class or one of its parents.
+ */
+final class Assignability {
+
+    private static final ClassValue<ConcurrentMap<Class<?>,Boolean>> CACHE = new ClassValue<ConcurrentMap<Class<?>,Boolean>>() {
+        @Override
+        protected ConcurrentMap<Class<?>,Boolean> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * The boxed types each primitive type accepts, including
+     * those of the primitives it can be widened from.
+     */
+    private static final Map<Class<?>,Class<?>[]> ACCEPTED_BOXES = new HashMap<>();
+
+    static{
+        ACCEPTED_BOXES.put(boolean.class, new Class<?>[]{Boolean.class});
+        ACCEPTED_BOXES.put(char.class, new Class<?>[]{Character.class});
+        ACCEPTED_BOXES.put(byte.class, new Class<?>[]{Byte.class});
+        ACCEPTED_BOXES.put(short.class, new Class<?>[]{Short.class, Byte.class});
+        ACCEPTED_BOXES.put(int.class, new Class<?>[]{Integer.class, Short.class, Byte.class, Character.class});
+        ACCEPTED_BOXES.put(long.class, new Class<?>[]{Long.class, Integer.class, Short.class, Byte.class, Character.class});
+        ACCEPTED_BOXES.put(float.class, new Class<?>[]{Float.class, Long.class, Integer.class, Short.class, Byte.class, Character.class});
+        ACCEPTED_BOXES.put(double.class, new Class<?>[]{Double.class, Float.class, Long.class, Integer.class, Short.class, Byte.class, Character.class});
+    }
+
+    private Assignability(){}
+
+    /**
+     * Test if an argument of the class can be passed to
+     * a parameter of the type.
+     *
+     * @param paramType the type of the parameter.
+     * @param argClass the class of the argument.
+     * @return true if the argument can be passed to the parameter.
+     */
+    static boolean isAssignable(Class<?> paramType, Class<?> argClass){
+        if(paramType == argClass || paramType == Object.class){
+            return true;
+        }
+
+        ConcurrentMap<Class<?>,Boolean> cached = CACHE.get(argClass);
+        Boolean result = cached.get(paramType);
+        if(result == null){
+            result = computeAssignable(paramType, argClass);
+            if(isSafeToCache(paramType, argClass)){
+                cached.putIfAbsent(paramType, result);
+            }
+        }
+        return result;
+    }
+
+    private static boolean computeAssignable(Class<?> paramType, Class<?> argClass){
+        if(paramType.isPrimitive()){
+            Class<?>[] accepted = ACCEPTED_BOXES.get(paramType);
+            if(accepted != null){
+                for(Class<?> box : accepted){
+                    if(box == argClass){
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        return paramType.isAssignableFrom(argClass);
+    }
+
+    private static boolean isSafeToCache(Class<?> paramType, Class<?> argClass){
+        ClassLoader paramLoader = paramType.getClassLoader();
+        if(paramLoader == null){
+            //The bootstrap ClassLoader is never unloaded
+            return true;
+        }
+
+        for(ClassLoader loader = argClass.getClassLoader(); loader != null; loader = loader.getParent()){
+            if(loader == paramLoader){
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
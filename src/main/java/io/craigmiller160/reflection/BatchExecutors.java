@@ -0,0 +1,84 @@
+package io.craigmiller160.reflection;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The executors that parallel batch invocations can be run on.
+ * By default they are run on the common ForkJoinPool. Runtimes
+ * that support virtual threads can run them on a virtual thread
+ * per task instead, which suits handlers that block on I/O.
+ */
+public final class BatchExecutors {
+
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadFactoryMethod();
+
+    private BatchExecutors(){}
+
+    /**
+     * Get the executor parallel batches use when none is provided.
+     *
+     * @return the common ForkJoinPool.
+     */
+    public static Executor defaultExecutor(){
+        return ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Test if the runtime supports virtual threads.
+     *
+     * @return true if newVirtualThreadExecutor() can be used.
+     */
+    public static boolean isVirtualThreadSupported(){
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * Create an executor that runs each task on a new virtual
+     * thread. The caller is responsible for shutting it down.
+     *
+     * @return the new executor.
+     * @throws UnsupportedOperationException if the runtime doesn't
+     *          support virtual threads.
+     */
+    public static ExecutorService newVirtualThreadExecutor(){
+        if(NEW_VIRTUAL_THREAD_EXECUTOR == null){
+            throw new UnsupportedOperationException("Virtual threads are not supported by this runtime: " + System.getProperty("java.version"));
+        }
+
+        try{
+            return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+        }
+        catch(ReflectiveOperationException ex){
+            throw new UnsupportedOperationException("Unable to create virtual thread executor", ex);
+        }
+    }
+
+    /**
+     * Get the number of tasks the executor can run at the same time,
+     * which is used to decide how many pieces to split a batch into.
+     *
+     * @param executor the executor.
+     * @return the executor's parallelism.
+     */
+    static int getParallelism(Executor executor){
+        if(executor instanceof ForkJoinPool){
+            return ((ForkJoinPool) executor).getParallelism();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private static Method findVirtualThreadFactoryMethod(){
+        try{
+            //Looked up reflectively, because it only exists on Java 21+
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        }
+        catch(NoSuchMethodException ex){
+            return null;
+        }
+    }
+
+}
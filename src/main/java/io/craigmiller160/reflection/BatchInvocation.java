@@ -0,0 +1,183 @@
+package io.craigmiller160.reflection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The implementation of the batch invocations in FindAndInvoke.
+ * Each batch resolves its method once per distinct group of
+ * runtime types, the receiver class when invoking on many targets
+ * or the argument classes when invoking with many rows of arguments,
+ * and reuses that resolution for every invocation in the group.
+ *
+ * Each method invokes a range of the batch, so a batch can be split
+ * up and invoked in pieces. Any Exception is recorded as a failure
+ * for its invocation, and the rest of the range is still invoked.
+ */
+final class BatchInvocation {
+
+    /**
+     * The smallest number of invocations worth running as a separate task.
+     */
+    static final int MIN_RANGE_SIZE = 64;
+
+    private BatchInvocation(){}
+
+    /**
+     * Invoke the method with the same arguments on the targets
+     * from the start index up to, but not including, the end index.
+     *
+     * @param targets the targets to invoke the method on.
+     * @param methodSig the signature of the method.
+     * @param newParams the params to invoke the method with.
+     * @param from the index of the first target to invoke on.
+     * @param to the index after the last target to invoke on.
+     * @param result the result to record each invocation in.
+     */
+    static void invokeOnAll(Object[] targets, String methodSig, Object[] newParams, int from, int to, BatchResult result){
+        //A null value means that class has no match
+        Map<Class<?>,ObjectAndMethod> matches = new HashMap<>();
+        for(int i = from; i < to; i++){
+            Object target = targets[i];
+            try{
+                if(target == null){
+                    throw new NullPointerException("Batch target at index " + i + " is null");
+                }
+
+                ObjectAndMethod match;
+                if(matches.containsKey(target.getClass())){
+                    match = matches.get(target.getClass());
+                    match = match != null ? match.rebind(target) : null;
+                }
+                else{
+                    match = resolve(target, methodSig, newParams);
+                    matches.put(target.getClass(), match);
+                }
+
+                if(match == null){
+                    throw new NoSuchMethodException("No matching method found: " + methodSig + " " + Arrays.toString(newParams));
+                }
+                result.setResult(i, FindAndInvoke.invokeMatch(match, newParams));
+            }
+            catch(Exception ex){
+                result.setFailure(i, ex);
+            }
+        }
+    }
+
+    /**
+     * Invoke the method on the same target with each of the rows of
+     * arguments from the start index up to, but not including, the end
+     * index.
+     *
+     * @param target the target to invoke the method on.
+     * @param methodSig the signature of the method.
+     * @param argRows the rows of params to invoke the method with.
+     * @param from the index of the first row to invoke with.
+     * @param to the index after the last row to invoke with.
+     * @param result the result to record each invocation in.
+     */
+    static void invokeForEach(Object target, String methodSig, Object[][] argRows, int from, int to, BatchResult result){
+        Class<?>[] receiverClasses = new Class<?>[]{target.getClass()};
+        //A null value means those argument classes have no match
+        Map<ResolutionKey,ObjectAndMethod> matches = new HashMap<>();
+        for(int i = from; i < to; i++){
+            Object[] newParams = argRows[i];
+            try{
+                Class<?>[] argClasses = ResolutionKey.classesOf(newParams);
+                ObjectAndMethod match;
+                if(argClasses == null){
+                    //Null arguments have no class to group by
+                    match = resolve(target, methodSig, newParams);
+                }
+                else{
+                    ResolutionKey key = new ResolutionKey(receiverClasses, methodSig, argClasses);
+                    if(matches.containsKey(key)){
+                        match = matches.get(key);
+                    }
+                    else{
+                        match = resolve(target, methodSig, newParams);
+                        matches.put(key, match);
+                    }
+                }
+
+                if(match == null){
+                    throw new NoSuchMethodException("No matching method found: " + methodSig + " " + Arrays.toString(newParams));
+                }
+                result.setResult(i, FindAndInvoke.invokeMatch(match, newParams));
+            }
+            catch(Exception ex){
+                result.setFailure(i, ex);
+            }
+        }
+    }
+
+    /**
+     * Invoke a batch in parallel, by splitting it into ranges and
+     * invoking each range as a separate task on the executor. Small
+     * batches are invoked entirely on the calling thread. Each range
+     * writes into its own indexes of the result, so results stay in
+     * the same order as the batch. If the executor rejects a range,
+     * because it is saturated or shut down, the calling thread invokes
+     * that range itself, so every row is still invoked and recorded
+     * before this returns.
+     *
+     * @param size the size of the batch.
+     * @param executor the executor to run the ranges on.
+     * @param range the invocation of a single range of the batch.
+     */
+    static void invokeParallel(int size, Executor executor, RangeInvocation range){
+        int parallelism = Math.max(1, BatchExecutors.getParallelism(executor));
+        //Several ranges per thread, so a slow range doesn't leave the other threads idle
+        int rangeSize = Math.max(MIN_RANGE_SIZE, (size + parallelism * 4 - 1) / (parallelism * 4));
+        if(size <= rangeSize){
+            range.invoke(0, size);
+            return;
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for(int from = 0; from < size; from += rangeSize){
+            final int start = from;
+            final int end = Math.min(size, from + rangeSize);
+            try{
+                futures.add(CompletableFuture.runAsync(() -> range.invoke(start, end), executor));
+            }
+            catch(RejectedExecutionException ex){
+                //Run inline, but still through a future, so an Error waits for the submitted ranges
+                futures.add(CompletableFuture.runAsync(() -> range.invoke(start, end), Runnable::run));
+            }
+        }
+
+        try{
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+        }
+        catch(CompletionException ex){
+            //Exceptions are recorded per invocation, so only Errors can end up here
+            if(ex.getCause() instanceof Error){
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * The invocation of one range of a batch.
+     */
+    interface RangeInvocation {
+        void invoke(int from, int to);
+    }
+
+    private static ObjectAndMethod resolve(Object target, String methodSig, Object[] newParams){
+        Object[] targets = new Object[]{target};
+        Resolution resolution = FindAndInvoke.resolve(ResolutionKey.classesOf(targets), targets, methodSig, newParams);
+        return resolution.isMatch() ? new ObjectAndMethod(target, resolution.getMethod()) : null;
+    }
+
+}
@@ -0,0 +1,104 @@
+package io.craigmiller160.reflection;
+
+import java.util.Arrays;
+
+/**
+ * The results of a batch of invocations. Each invocation
+ * in the batch either succeeded, and has a result, or
+ * failed, and has the exception that caused it to fail.
+ * A failure doesn't stop the rest of the batch from being
+ * invoked. Results are kept in the same order as the
+ * invocations were provided.
+ */
+public final class BatchResult {
+
+    private final Object[] results;
+    private volatile Throwable[] failures;
+
+    BatchResult(int size){
+        this.results = new Object[size];
+    }
+
+    void setResult(int index, Object result){
+        results[index] = result;
+    }
+
+    void setFailure(int index, Throwable failure){
+        Throwable[] current = failures;
+        if(current == null){
+            synchronized (this){
+                current = failures;
+                if(current == null){
+                    current = new Throwable[results.length];
+                    failures = current;
+                }
+            }
+        }
+        current[index] = failure;
+    }
+
+    public int size(){
+        return results.length;
+    }
+
+    /**
+     * Get the result of the invocation at the index. This will
+     * be null if the method was void, returned null, or failed.
+     *
+     * @param index the index of the invocation.
+     * @return the result of the invocation.
+     */
+    public Object getResult(int index){
+        return results[index];
+    }
+
+    /**
+     * Get the exception that caused the invocation at the index
+     * to fail. This is the same exception findAndInvokeMethod()
+     * would have thrown for it.
+     *
+     * @param index the index of the invocation.
+     * @return the exception, or null if the invocation succeeded.
+     */
+    public Throwable getFailure(int index){
+        Throwable[] current = failures;
+        return current != null ? current[index] : null;
+    }
+
+    public boolean isSuccess(int index){
+        return getFailure(index) == null;
+    }
+
+    public boolean hasFailures(){
+        return getFailureCount() > 0;
+    }
+
+    public int getFailureCount(){
+        Throwable[] current = failures;
+        int count = 0;
+        if(current != null){
+            for(Throwable t : current){
+                if(t != null){
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get all the results, in the order of the invocations.
+     *
+     * @return a copy of the results.
+     */
+    public Object[] getResults(){
+        return results.clone();
+    }
+
+    @Override
+    public String toString(){
+        return "BatchResult{size=" + results.length + ", failures=" + getFailureCount() +
+                ", results=" + Arrays.toString(results) + "}";
+    }
+
+}
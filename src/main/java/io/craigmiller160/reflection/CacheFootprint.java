@@ -0,0 +1,59 @@
+package io.craigmiller160.reflection;
+
+/**
+ * A snapshot of how much a ResolutionCache is holding, and
+ * an estimate of how much memory that takes. The estimate
+ * only covers what the cache itself allocates, not the
+ * classes and methods it refers to.
+ */
+public final class CacheFootprint {
+
+    private final int entryCount;
+    private final int weakEntryCount;
+    private final int maximumSize;
+    private final long purgeCount;
+    private final long estimatedBytes;
+
+    CacheFootprint(int entryCount, int weakEntryCount, int maximumSize, long purgeCount, long estimatedBytes){
+        this.entryCount = entryCount;
+        this.weakEntryCount = weakEntryCount;
+        this.maximumSize = maximumSize;
+        this.purgeCount = purgeCount;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public int getEntryCount(){
+        return entryCount;
+    }
+
+    /**
+     * Get the number of entries that weakly reference at
+     * least one class or method, because it belongs to a
+     * ClassLoader that could be discarded.
+     *
+     * @return the number of weak entries.
+     */
+    public int getWeakEntryCount(){
+        return weakEntryCount;
+    }
+
+    public int getMaximumSize(){
+        return maximumSize;
+    }
+
+    public long getPurgeCount(){
+        return purgeCount;
+    }
+
+    public long getEstimatedBytes(){
+        return estimatedBytes;
+    }
+
+    @Override
+    public String toString(){
+        return "CacheFootprint{entries=" + entryCount + ", weakEntries=" + weakEntryCount +
+                ", maximumSize=" + maximumSize + ", purged=" + purgeCount +
+                ", estimatedBytes=" + estimatedBytes + "}";
+    }
+
+}
@@ -0,0 +1,303 @@
+package io.craigmiller160.reflection;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * An accessor class generated at runtime, through LambdaMetafactory,
+ * for a single Method. The generated class calls the Method with
+ * ordinary bytecode, so once the JIT has seen it, invoking through
+ * it is close to the cost of a direct call, which a MethodHandle
+ * held in a field doesn't achieve.
+ *
+ * Generation is only possible for methods with a return value, at
+ * most MAX_PARAMS parameters, and a declaring class and signature
+ * that are public and visible to this library. For anything else,
+ * or if the JVM refuses to generate the class, create() returns
+ * null and the caller keeps using its existing path.
+ *
+ * The generated class can only unbox a primitive argument from its
+ * exact wrapper type, where the MethodHandle path also widens, such
+ * as an Integer for a long. Callers must check accepts() before each
+ * invocation, and use their existing path for arguments it rejects.
+ */
+abstract class CompiledAccessor {
+
+    /**
+     * The largest number of parameters a method can have
+     * and still be compiled.
+     */
+    static final int MAX_PARAMS = 4;
+
+    private static final MethodType[] SAM_TYPES = {
+            MethodType.genericMethodType(0),
+            MethodType.genericMethodType(1),
+            MethodType.genericMethodType(2),
+            MethodType.genericMethodType(3),
+            MethodType.genericMethodType(4),
+            MethodType.genericMethodType(5)
+    };
+
+    private static final Class<?>[] SAM_CLASSES = {
+            Arity0.class, Arity1.class, Arity2.class, Arity3.class, Arity4.class, Arity5.class
+    };
+
+    //The wrapper type of each primitive param, or null if there are no primitive params
+    private final Class<?>[] exactWrappers;
+
+    private CompiledAccessor(Class<?>[] exactWrappers){
+        this.exactWrappers = exactWrappers;
+    }
+
+    /**
+     * Test if the params can be passed to the generated class.
+     * Every primitive param must be given as its exact wrapper
+     * type, since the generated class can't widen them.
+     *
+     * @param params the params the method will be invoked with.
+     * @return true if the accessor can invoke the method with them.
+     */
+    boolean accepts(Object[] params){
+        if(exactWrappers == null){
+            return true;
+        }
+        for(int i = 0; i < exactWrappers.length; i++){
+            if(exactWrappers[i] != null && (params[i] == null || params[i].getClass() != exactWrappers[i])){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Invoke the method. Any varArgs conversion must already have
+     * been done on the params. Whatever the method throws is thrown
+     * directly, unwrapped.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @param params the params to invoke the method with.
+     * @return the result of the method.
+     * @throws Throwable anything thrown by the method.
+     */
+    abstract Object invoke(Object target, Object[] params) throws Throwable;
+
+    /**
+     * Generate the accessor for the provided method.
+     *
+     * @param method the method to generate the accessor for.
+     * @return the accessor, or null if one can't be generated for the method.
+     */
+    static CompiledAccessor create(Method method){
+        if(!isCompilable(method)){
+            return null;
+        }
+
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        int paramCount = method.getParameterCount();
+        int arity = isStatic ? paramCount : paramCount + 1;
+        try{
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle impl = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "invoke",
+                    MethodType.methodType(SAM_CLASSES[arity]), SAM_TYPES[arity], impl, impl.type().wrap());
+            Object lambda = site.getTarget().invoke();
+            Class<?>[] wrappers = getExactWrappers(method);
+            return isStatic ? forStatic(lambda, paramCount, wrappers) : forInstance(lambda, paramCount, wrappers);
+        }
+        catch(LambdaConversionException | IllegalAccessException | RuntimeException | LinkageError ex){
+            return null;
+        }
+        catch(Throwable t){
+            if(t instanceof Error){
+                throw (Error) t;
+            }
+            return null;
+        }
+    }
+
+    private static Class<?>[] getExactWrappers(Method method){
+        Class<?>[] paramTypes = method.getParameterTypes();
+        Class<?>[] wrappers = null;
+        for(int i = 0; i < paramTypes.length; i++){
+            if(paramTypes[i].isPrimitive()){
+                if(wrappers == null){
+                    wrappers = new Class<?>[paramTypes.length];
+                }
+                wrappers[i] = MethodType.methodType(paramTypes[i]).wrap().returnType();
+            }
+        }
+        return wrappers;
+    }
+
+    /**
+     * Check that the generated class, which is defined in this
+     * library's package, will be able to link against the method
+     * and every type in its signature.
+     */
+    private static boolean isCompilable(Method method){
+        if(method.getReturnType() == void.class || method.getParameterCount() > MAX_PARAMS ||
+                !Modifier.isPublic(method.getModifiers())){
+            return false;
+        }
+
+        for(Class<?> c = method.getDeclaringClass(); c != null; c = c.getEnclosingClass()){
+            if(!Modifier.isPublic(c.getModifiers())){
+                return false;
+            }
+        }
+
+        if(!isVisible(method.getDeclaringClass()) || !isVisible(method.getReturnType())){
+            return false;
+        }
+        for(Class<?> paramType : method.getParameterTypes()){
+            if(!isVisible(paramType)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVisible(Class<?> type){
+        while(type.isArray()){
+            type = type.getComponentType();
+        }
+        if(type.isPrimitive()){
+            return true;
+        }
+        if(!Modifier.isPublic(type.getModifiers())){
+            return false;
+        }
+
+        try{
+            return Class.forName(type.getName(), false, CompiledAccessor.class.getClassLoader()) == type;
+        }
+        catch(ClassNotFoundException | LinkageError ex){
+            return false;
+        }
+    }
+
+    private static CompiledAccessor forStatic(Object lambda, int paramCount, Class<?>[] wrappers){
+        switch(paramCount){
+            case 0:
+                final Arity0 a0 = (Arity0) lambda;
+                return new CompiledAccessor(wrappers) {
+                    @Override
+                    Object invoke(Object target, Object[] params) {
+                        return a0.invoke();
+                    }
+                };
+            case 1:
+                final Arity1 a1 = (Arity1) lambda;
+                return new CompiledAccessor(wrappers) {
+                    @Override
+                    Object invoke(Object target, Object[] params) {
+                        return a1.invoke(params[0]);
+                    }
+                };
+            case 2:
+                final Arity2 a2 = (Arity2) lambda;
+                return new CompiledAccessor(wrappers) {
+                    @Override
+                    Object invoke(Object target, Object[] params) {
+                        return a2.invoke(params[0], params[1]);
+                    }
+                };
+            case 3:
+                final Arity3 a3 = (Arity3) lambda;
+                return new CompiledAccessor(wrappers) {
+                    @Override
+                    Object invoke(Object target, Object[] params) {
+                        return a3.invoke(params[0], params[1], params[2]);
+                    }
+                };
+            default:
+                final Arity4 a4 = (Arity4) lambda;
+                return new CompiledAccessor(wrappers) {
+                    @Override
+                    Object invoke(Object target, Object[] params) {
+                        return a4.invoke(params[0], params[1], params[2], params[3]);
+                    }
+                };
+        }
+    }
+
+    private static CompiledAccessor forInstance(Object lambda, int paramCount, Class<?>[] wrappers){
+        switch(paramCount){
+            case 0:
+                final Arity1 a1 = (Arity1) lambda;
+                return new CompiledAccessor(wrappers) {
+                    @Override
+                    Object invoke(Object target, Object[] params) {
+                        return a1.invoke(target);
+                    }
+                };
+            case 1:
+                final Arity2 a2 = (Arity2) lambda;
+                return new CompiledAccessor(wrappers) {
+                    @Override
+                    Object invoke(Object target, Object[] params) {
+                        return a2.invoke(target, params[0]);
+                    }
+                };
+            case 2:
+                final Arity3 a3 = (Arity3) lambda;
+                return new CompiledAccessor(wrappers) {
+                    @Override
+                    Object invoke(Object target, Object[] params) {
+                        return a3.invoke(target, params[0], params[1]);
+                    }
+                };
+            case 3:
+                final Arity4 a4 = (Arity4) lambda;
+                return new CompiledAccessor(wrappers) {
+                    @Override
+                    Object invoke(Object target, Object[] params) {
+                        return a4.invoke(target, params[0], params[1], params[2]);
+                    }
+                };
+            default:
+                final Arity5 a5 = (Arity5) lambda;
+                return new CompiledAccessor(wrappers) {
+                    @Override
+                    Object invoke(Object target, Object[] params) {
+                        return a5.invoke(target, params[0], params[1], params[2], params[3]);
+                    }
+                };
+        }
+    }
+
+    //The functional interfaces implemented by the generated classes,
+    //one per number of arguments, including the target if there is one
+
+    interface Arity0 {
+        Object invoke();
+    }
+
+    interface Arity1 {
+        Object invoke(Object a);
+    }
+
+    interface Arity2 {
+        Object invoke(Object a, Object b);
+    }
+
+    interface Arity3 {
+        Object invoke(Object a, Object b, Object c);
+    }
+
+    interface Arity4 {
+        Object invoke(Object a, Object b, Object c, Object d);
+    }
+
+    interface Arity5 {
+        Object invoke(Object a, Object b, Object c, Object d, Object e);
+    }
+
+}
@@ -0,0 +1,195 @@
+package io.craigmiller160.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An index of the public constructors of a single Class, and of
+ * which constructor matched each combination of argument classes
+ * it has been called with. Matching uses the same rules as
+ * MethodUtils.isValidInvocation(), and the constructors are tried
+ * in the order Class.getConstructors() returns them.
+ *
+ * The indexes are held in a ClassValue, so they are released along
+ * with the Class they describe. Argument classes from other loaders
+ * are only weakly referenced, so they don't keep those loaders alive,
+ * and matches for argument classes that have been collected are purged
+ * so they don't take up room in the cache.
+ */
+final class ConstructorIndex {
+
+    /**
+     * The most combinations of argument classes cached
+     * for a single Class.
+     */
+    private static final int MAX_CACHED = 256;
+
+    private static final ClassValue<ConstructorIndex> INDEXES = new ClassValue<ConstructorIndex>() {
+        @Override
+        protected ConstructorIndex computeValue(Class<?> type) {
+            return new ConstructorIndex(type);
+        }
+    };
+
+    private static final Match NO_MATCH = new Match(null);
+
+    private final Class<?> type;
+    private final Constructor<?>[] constructors;
+    private final ConcurrentMap<ResolutionKey,Match> matches = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Class<?>> collected = new ReferenceQueue<>();
+
+    private ConstructorIndex(Class<?> type){
+        this.type = type;
+        this.constructors = type.getConstructors();
+    }
+
+    static ConstructorIndex forClass(Class<?> type){
+        return INDEXES.get(type);
+    }
+
+    /**
+     * Find the constructor that matches the arguments. The outcome
+     * is cached by the classes of the arguments, unless any of them
+     * are null.
+     *
+     * @param args the arguments the constructor will be called with.
+     * @return the match, which has no constructor if none matched.
+     */
+    Match findMatch(Object...args){
+        Class<?>[] argClasses = ResolutionKey.classesOf(args);
+        if(argClasses == null){
+            return doFindMatch(args);
+        }
+
+        ResolutionKey key = new ResolutionKey(new Class<?>[]{type}, "<init>", argClasses);
+        Match match = matches.get(key);
+        if(match == null){
+            match = doFindMatch(args);
+            purgeCollected();
+            if(matches.size() < MAX_CACHED){
+                Match existing = matches.putIfAbsent(key.weaken(collected), match);
+                if(existing != null){
+                    match = existing;
+                }
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Remove the matches whose argument classes have been collected.
+     * This is done whenever a new match is cached.
+     */
+    void purgeCollected(){
+        Reference<? extends Class<?>> ref;
+        while((ref = collected.poll()) != null){
+            //A stale key is only equal to itself, so this removes exactly that match
+            ResolutionKey key = ResolutionKey.keyOf(ref);
+            if(key != null){
+                matches.remove(key);
+            }
+        }
+    }
+
+    int getCachedCount(){
+        return matches.size();
+    }
+
+    private Match doFindMatch(Object...args){
+        for(Constructor<?> constructor : constructors){
+            if(MethodUtils.isValidInvocation(constructor.getParameterTypes(), constructor.isVarArgs(), false, args)){
+                return new Match(constructor);
+            }
+        }
+        return NO_MATCH;
+    }
+
+    boolean hasConstructors(){
+        return constructors.length > 0;
+    }
+
+    /**
+     * A constructor that matched a combination of argument
+     * classes, and the handle to call it through. The handle
+     * is created the first time the constructor is called.
+     */
+    static final class Match {
+
+        private final Constructor<?> constructor;
+        private final Class<?>[] paramTypes;
+        private volatile MethodHandle handle;
+
+        private Match(Constructor<?> constructor){
+            this.constructor = constructor;
+            this.paramTypes = constructor != null ? constructor.getParameterTypes() : null;
+        }
+
+        boolean isMatch(){
+            return constructor != null;
+        }
+
+        Constructor<?> getConstructor(){
+            return constructor;
+        }
+
+        /**
+         * Call the constructor, converting the arguments for
+         * varArgs first if needed.
+         *
+         * @param args the arguments, not yet converted for varArgs.
+         * @return the new object.
+         * @throws IllegalAccessException if the constructor isn't accessible.
+         * @throws InvocationTargetException if the constructor throws a checked exception.
+         *          RuntimeExceptions and Errors are thrown directly.
+         */
+        Object newInstance(Object...args) throws IllegalAccessException, InvocationTargetException{
+            MethodHandle h = getHandle();
+            if(!constructor.isVarArgs()){
+                return invoke(h, args);
+            }
+
+            Object[] buffer = MethodUtils.getThreadLocalBuffer(paramTypes.length);
+            try{
+                return invoke(h, MethodUtils.convertParamsForVarArgs(paramTypes, buffer, args));
+            }
+            finally{
+                if(buffer != null){
+                    Arrays.fill(buffer, null);
+                }
+            }
+        }
+
+        private static Object invoke(MethodHandle h, Object[] args) throws InvocationTargetException{
+            try{
+                return (Object) h.invokeExact(args);
+            }
+            catch(Throwable t){
+                throw MethodInvoker.unwrap(t);
+            }
+        }
+
+        private MethodHandle getHandle() throws IllegalAccessException{
+            MethodHandle h = handle;
+            if(h == null){
+                //Fixed arity, since the varArgs array is always built before calling
+                h = MethodHandles.lookup().unreflectConstructor(constructor).asFixedArity();
+                int paramCount = paramTypes.length;
+                h = h.asType(MethodType.genericMethodType(paramCount))
+                        .asSpreader(Object[].class, paramCount)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+                handle = h;
+            }
+            return h;
+        }
+
+    }
+
+}
@@ -0,0 +1,59 @@
+package io.craigmiller160.reflection;
+
+/**
+ * Receives events about the work FindAndInvoke does for each
+ * dispatch. Install one with DispatchMetrics.setListener(). All
+ * times are in nanoseconds. Every method has an empty default
+ * implementation, so a listener only needs to implement the events
+ * it is interested in.
+ *
+ * Listeners are called on the dispatching thread, in the middle of
+ * the dispatch, so they must be thread-safe and should return quickly.
+ */
+public interface DispatchListener {
+
+    /**
+     * Called once a method name and set of arguments has been
+     * resolved to a method, or found to have no match.
+     *
+     * @param methodName the name of the method being dispatched.
+     * @param cacheHit true if the resolution came from the ResolutionCache.
+     * @param matched true if a matching method was found.
+     * @param nanos the time taken to resolve the method.
+     */
+    default void onResolution(String methodName, boolean cacheHit, boolean matched, long nanos){}
+
+    /**
+     * Called when the candidate methods have been validated against
+     * the arguments. This only happens when the resolution wasn't
+     * already cached.
+     *
+     * @param methodName the name of the method being dispatched.
+     * @param candidatesExamined the number of candidates that were validated.
+     * @param nanos the time taken to validate the candidates.
+     */
+    default void onValidation(String methodName, int candidatesExamined, long nanos){}
+
+    /**
+     * Called when the arguments have been converted for a varArgs method.
+     *
+     * @param methodName the name of the method being dispatched.
+     * @param nanos the time taken to convert the arguments.
+     */
+    default void onConversion(String methodName, long nanos){}
+
+    /**
+     * Called when the resolved method has been invoked.
+     *
+     * @param methodName the name of the method being dispatched.
+     * @param failed true if the method threw an exception.
+     * @param nanos the time taken to invoke the method.
+     */
+    default void onInvocation(String methodName, boolean failed, long nanos){}
+
+    /**
+     * Called when an entry is evicted from the ResolutionCache.
+     */
+    default void onCacheEviction(){}
+
+}
@@ -0,0 +1,53 @@
+package io.craigmiller160.reflection;
+
+/**
+ * The switch for dispatch metrics. No metrics are recorded
+ * until a DispatchListener is installed, and while none is
+ * installed the only cost on the dispatch path is a check of
+ * a single field.
+ */
+public final class DispatchMetrics {
+
+    private static volatile DispatchListener listener;
+
+    private DispatchMetrics(){}
+
+    /**
+     * Install the listener that receives dispatch events,
+     * replacing any that is already installed.
+     *
+     * @param newListener the listener, or null to disable metrics.
+     */
+    public static void setListener(DispatchListener newListener){
+        listener = newListener;
+    }
+
+    /**
+     * Get the installed listener.
+     *
+     * @return the listener, or null if metrics are disabled.
+     */
+    public static DispatchListener getListener(){
+        return listener;
+    }
+
+    /**
+     * Install a new DispatchStatistics as the listener, so the
+     * built-in counters and latency histograms are recorded.
+     *
+     * @return the statistics that were installed.
+     */
+    public static DispatchStatistics enableStatistics(){
+        DispatchStatistics statistics = new DispatchStatistics();
+        listener = statistics;
+        return statistics;
+    }
+
+    /**
+     * Remove the installed listener, disabling metrics.
+     */
+    public static void disable(){
+        listener = null;
+    }
+
+}
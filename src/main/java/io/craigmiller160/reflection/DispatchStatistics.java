@@ -0,0 +1,237 @@
+package io.craigmiller160.reflection;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The built-in DispatchListener, which keeps counters and latency
+ * histograms for each stage of a dispatch, and call counts for each
+ * method name. Cache statistics are read from the ResolutionCache
+ * used by FindAndInvoke. Everything is recorded with LongAdders, so
+ * recording from many threads at once doesn't contend.
+ *
+ * Enable it with DispatchMetrics.enableStatistics(), and optionally
+ * publish it over JMX with registerMBean().
+ */
+public class DispatchStatistics implements DispatchListener, DispatchStatisticsMXBean {
+
+    /**
+     * The name the statistics are registered under in JMX.
+     */
+    public static final String OBJECT_NAME = "io.craigmiller160.reflection:type=DispatchStatistics";
+
+    /**
+     * The most method names that get their own call count. Calls to
+     * any other method names are counted together under OTHER_METHODS,
+     * so signatures built at runtime can't grow the counts without limit.
+     */
+    public static final int MAX_TRACKED_METHODS = 4096;
+
+    /**
+     * The name calls are counted under once MAX_TRACKED_METHODS
+     * method names are already being counted.
+     */
+    public static final String OTHER_METHODS = "(other)";
+
+    private final LatencyHistogram resolutions = new LatencyHistogram();
+    private final LatencyHistogram validations = new LatencyHistogram();
+    private final LatencyHistogram conversions = new LatencyHistogram();
+    private final LatencyHistogram invocations = new LatencyHistogram();
+    private final LongAdder lookupFailures = new LongAdder();
+    private final LongAdder candidatesExamined = new LongAdder();
+    private final LongAdder invocationFailures = new LongAdder();
+    private final ConcurrentMap<String,LongAdder> callCounts = new ConcurrentHashMap<>();
+
+    @Override
+    public void onResolution(String methodName, boolean cacheHit, boolean matched, long nanos){
+        resolutions.record(nanos);
+        if(!matched){
+            lookupFailures.increment();
+        }
+
+        LongAdder callCount = callCounts.get(methodName);
+        if(callCount == null){
+            String name = callCounts.size() < MAX_TRACKED_METHODS ? methodName : OTHER_METHODS;
+            callCount = callCounts.computeIfAbsent(name, k -> new LongAdder());
+        }
+        callCount.increment();
+    }
+
+    @Override
+    public void onValidation(String methodName, int candidates, long nanos){
+        validations.record(nanos);
+        candidatesExamined.add(candidates);
+    }
+
+    @Override
+    public void onConversion(String methodName, long nanos){
+        conversions.record(nanos);
+    }
+
+    @Override
+    public void onInvocation(String methodName, boolean failed, long nanos){
+        invocations.record(nanos);
+        if(failed){
+            invocationFailures.increment();
+        }
+    }
+
+    /**
+     * Register these statistics with the platform MBeanServer,
+     * under OBJECT_NAME. Any statistics already registered under
+     * that name are replaced.
+     *
+     * @throws JMException if the statistics can't be registered.
+     */
+    public void registerMBean() throws JMException{
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        try{
+            server.registerMBean(this, name);
+        }
+        catch(InstanceAlreadyExistsException ex){
+            server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        }
+    }
+
+    /**
+     * Remove these statistics from the platform MBeanServer,
+     * if they are registered.
+     *
+     * @throws JMException if the statistics can't be unregistered.
+     */
+    public void unregisterMBean() throws JMException{
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if(server.isRegistered(name)){
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Override
+    public long getResolutionCount(){
+        return resolutions.getCount();
+    }
+
+    @Override
+    public double getResolutionMeanNanos(){
+        return resolutions.getMeanNanos();
+    }
+
+    @Override
+    public long getResolutionP99Nanos(){
+        return resolutions.getPercentileNanos(99);
+    }
+
+    @Override
+    public long getLookupFailureCount(){
+        return lookupFailures.sum();
+    }
+
+    @Override
+    public long getValidationCount(){
+        return validations.getCount();
+    }
+
+    @Override
+    public double getValidationMeanNanos(){
+        return validations.getMeanNanos();
+    }
+
+    @Override
+    public long getCandidatesExamined(){
+        return candidatesExamined.sum();
+    }
+
+    @Override
+    public long getConversionCount(){
+        return conversions.getCount();
+    }
+
+    @Override
+    public double getConversionMeanNanos(){
+        return conversions.getMeanNanos();
+    }
+
+    @Override
+    public long getInvocationCount(){
+        return invocations.getCount();
+    }
+
+    @Override
+    public double getInvocationMeanNanos(){
+        return invocations.getMeanNanos();
+    }
+
+    @Override
+    public long getInvocationP99Nanos(){
+        return invocations.getPercentileNanos(99);
+    }
+
+    @Override
+    public long getInvocationFailureCount(){
+        return invocationFailures.sum();
+    }
+
+    @Override
+    public long getCacheHitCount(){
+        return FindAndInvoke.getResolutionCache().getHitCount();
+    }
+
+    @Override
+    public long getCacheMissCount(){
+        return FindAndInvoke.getResolutionCache().getMissCount();
+    }
+
+    @Override
+    public long getCacheEvictionCount(){
+        return FindAndInvoke.getResolutionCache().getEvictionCount();
+    }
+
+    @Override
+    public int getCacheSize(){
+        return FindAndInvoke.getResolutionCache().size();
+    }
+
+    /**
+     * Get the number of calls to each method name. Once
+     * MAX_TRACKED_METHODS names are being counted, calls to any
+     * new names are counted under OTHER_METHODS instead.
+     *
+     * @return the call counts, by method name.
+     */
+    @Override
+    public Map<String,Long> getCallCountsByMethod(){
+        Map<String,Long> counts = new HashMap<>();
+        for(Map.Entry<String,LongAdder> entry : callCounts.entrySet()){
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    /**
+     * Reset all the counters and histograms. The cache statistics
+     * belong to the ResolutionCache, and aren't reset.
+     */
+    @Override
+    public void reset(){
+        resolutions.reset();
+        validations.reset();
+        conversions.reset();
+        invocations.reset();
+        lookupFailures.reset();
+        candidatesExamined.reset();
+        invocationFailures.reset();
+        callCounts.clear();
+    }
+
+}
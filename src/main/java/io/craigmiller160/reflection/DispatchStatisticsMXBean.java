@@ -0,0 +1,49 @@
+package io.craigmiller160.reflection;
+
+import java.util.Map;
+
+/**
+ * The JMX view of DispatchStatistics. Latencies are in
+ * nanoseconds, and percentiles are approximate.
+ */
+public interface DispatchStatisticsMXBean {
+
+    long getResolutionCount();
+
+    double getResolutionMeanNanos();
+
+    long getResolutionP99Nanos();
+
+    long getLookupFailureCount();
+
+    long getValidationCount();
+
+    double getValidationMeanNanos();
+
+    long getCandidatesExamined();
+
+    long getConversionCount();
+
+    double getConversionMeanNanos();
+
+    long getInvocationCount();
+
+    double getInvocationMeanNanos();
+
+    long getInvocationP99Nanos();
+
+    long getInvocationFailureCount();
+
+    long getCacheHitCount();
+
+    long getCacheMissCount();
+
+    long getCacheEvictionCount();
+
+    int getCacheSize();
+
+    Map<String,Long> getCallCountsByMethod();
+
+    void reset();
+
+}
@@ -0,0 +1,126 @@
+package io.craigmiller160.reflection;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A fixed set of target objects that methods are dispatched
+ * to, the same way as FindAndInvoke.findAndInvokeMethod(Object[], ...).
+ * Because the targets never change, all the methods on all of them
+ * are indexed by name once, when the table is created. Each call
+ * then goes straight to the cached resolution for its argument
+ * types, with no scanning of the targets, no copying of them,
+ * and no building of lists of candidates.
+ *
+ * The targets are searched in the order they were provided,
+ * exactly as findAndInvokeMethod() would search them, so both
+ * will always pick the same method. Instances are immutable
+ * and can be safely shared between threads.
+ */
+public final class DispatchTable {
+
+    private final Object[] targets;
+    private final Class<?>[] targetClasses;
+    private final Map<String,ObjectAndMethod[]> candidatesByName;
+
+    public DispatchTable(Object...targets){
+        this.targets = targets.clone();
+        this.targetClasses = ResolutionKey.classesOf(this.targets);
+        if(targetClasses == null){
+            throw new IllegalArgumentException("DispatchTable targets cannot be null: " + Arrays.toString(targets));
+        }
+
+        Map<String,List<ObjectAndMethod>> grouped = new HashMap<>();
+        for(Object target : this.targets){
+            MethodIndex methodIndex = MethodIndex.forClass(target.getClass());
+            for(String name : methodIndex.getMethodNames()){
+                List<ObjectAndMethod> group = grouped.get(name);
+                if(group == null){
+                    group = new ArrayList<>();
+                    grouped.put(name, group);
+                }
+                OverloadIndex overloads = methodIndex.getOverloads(name);
+                for(int i = 0; i < overloads.size(); i++){
+                    group.add(overloads.getTemplate(i).rebind(target));
+                }
+            }
+        }
+
+        Map<String,ObjectAndMethod[]> index = new HashMap<>();
+        for(Map.Entry<String,List<ObjectAndMethod>> entry : grouped.entrySet()){
+            //Candidates must be in the same order FindAndInvoke searches them, so cached resolutions line up
+            List<ObjectAndMethod> group = entry.getValue();
+            index.put(entry.getKey(), group.toArray(new ObjectAndMethod[group.size()]));
+        }
+        this.candidatesByName = Collections.unmodifiableMap(index);
+    }
+
+    public DispatchTable(Collection<?> targets){
+        this(targets.toArray());
+    }
+
+    /**
+     * Find and invoke the method matching the signature and params
+     * on the first target that has one.
+     *
+     * @param methodSig the signature of the method to invoke.
+     * @param newParams the params to invoke the method with.
+     * @return the result of the method, or null if it is void.
+     * @throws NoSuchMethodException if no target has a matching method.
+     * @throws IllegalAccessException if the matching method isn't accessible.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     */
+    public Object invoke(String methodSig, Object...newParams)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException{
+        boolean fullSignature = MethodSignature.isFullSignature(methodSig);
+        ObjectAndMethod[] candidates = candidatesByName.get(fullSignature ? MethodSignature.parse(methodSig).getName() : methodSig);
+        if(candidates == null){
+            throw new NoSuchMethodException("No methods exist matching this signature: " + methodSig);
+        }
+
+        Resolution resolution = FindAndInvoke.resolve(targetClasses, targets, methodSig, newParams);
+        if(!resolution.isMatch()){
+            throw new NoSuchMethodException("No matching method found: " + methodSig + " " + Arrays.toString(newParams));
+        }
+
+        if(fullSignature){
+            //Signature matches aren't one of the candidates for the name
+            return FindAndInvoke.invokeMatch(new ObjectAndMethod(targets[resolution.getTargetIndex()], resolution.getMethod()), newParams);
+        }
+        return FindAndInvoke.invokeMatch(candidates[resolution.getCandidateIndex()], newParams);
+    }
+
+    /**
+     * Test if any of the targets has a method with the
+     * provided signature, regardless of its params. If the
+     * signature is a full signature, the method must have
+     * exactly those parameter types.
+     *
+     * @param methodSig the signature of the method.
+     * @return true if any target has a method with that signature.
+     */
+    public boolean hasMethod(String methodSig){
+        if(MethodSignature.isFullSignature(methodSig)){
+            MethodSignature signature = MethodSignature.parse(methodSig);
+            for(Class<?> targetClass : targetClasses){
+                if(MethodIndex.forClass(targetClass).getMethod(signature) != null){
+                    return true;
+                }
+            }
+            return false;
+        }
+        return candidatesByName.containsKey(methodSig);
+    }
+
+    public List<Object> getTargets(){
+        return Collections.unmodifiableList(Arrays.asList(targets));
+    }
+
+}
@@ -0,0 +1,146 @@
+package io.craigmiller160.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads and writes a single public Field through MethodHandles
+ * rather than Field.get() and Field.set(). The getter and setter
+ * handles are created once, and adapted to each shape they are
+ * used with, such as (Object)int for reading an int without
+ * boxing it, the first time that shape is used.
+ *
+ * The accessors for a Class are held in a ClassValue, so they are
+ * released along with the Class they describe.
+ */
+final class FieldAccessor {
+
+    private static final ClassValue<Map<String,FieldAccessor>> ACCESSORS = new ClassValue<Map<String,FieldAccessor>>() {
+        @Override
+        protected Map<String,FieldAccessor> computeValue(Class<?> type) {
+            //getFields() returns fields of subclasses before the ones they hide
+            Map<String,FieldAccessor> accessors = new HashMap<>();
+            for(Field field : type.getFields()){
+                if(!accessors.containsKey(field.getName())){
+                    accessors.put(field.getName(), new FieldAccessor(field));
+                }
+            }
+            return Collections.unmodifiableMap(accessors);
+        }
+    };
+
+    static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final boolean isStatic;
+    private volatile MethodHandle getter;
+    private volatile MethodHandle setter;
+    private final ConcurrentMap<MethodType,MethodHandle> typedHandles = new ConcurrentHashMap<>();
+
+    private FieldAccessor(Field field){
+        this.field = field;
+        this.isStatic = Modifier.isStatic(field.getModifiers());
+    }
+
+    /**
+     * Get the accessor for the public field with the provided
+     * name on the Class.
+     *
+     * @param type the Class to get the field from.
+     * @param name the name of the field.
+     * @return the accessor, or null if the Class has no public
+     *          field with that name.
+     */
+    static FieldAccessor forField(Class<?> type, String name){
+        return ACCESSORS.get(type).get(name);
+    }
+
+    Field getField(){
+        return field;
+    }
+
+    /**
+     * Get the handle that reads the field, adapted to the provided
+     * type. The first parameter is the target, which is ignored if
+     * the field is static.
+     *
+     * @param type the type to adapt the getter to.
+     * @return the adapted getter.
+     * @throws IllegalAccessException if the field isn't accessible.
+     * @throws IllegalArgumentException if the field can't be read as that type.
+     */
+    MethodHandle getter(MethodType type) throws IllegalAccessException{
+        MethodHandle handle = typedHandles.get(type);
+        if(handle == null){
+            handle = adapt(getGetter(), type);
+        }
+        return handle;
+    }
+
+    /**
+     * Get the handle that writes the field, adapted to the provided
+     * type. The first parameter is the target, which is ignored if
+     * the field is static.
+     *
+     * @param type the type to adapt the setter to.
+     * @return the adapted setter.
+     * @throws IllegalAccessException if the field isn't accessible, or is final.
+     * @throws IllegalArgumentException if the field can't be written as that type.
+     */
+    MethodHandle setter(MethodType type) throws IllegalAccessException{
+        MethodHandle handle = typedHandles.get(type);
+        if(handle == null){
+            handle = adapt(getSetter(), type);
+        }
+        return handle;
+    }
+
+    private MethodHandle adapt(MethodHandle handle, MethodType type){
+        MethodHandle adapted;
+        try{
+            adapted = handle.asType(type);
+        }
+        catch(WrongMethodTypeException ex){
+            throw new IllegalArgumentException("Cannot access field " + field + " as " + type, ex);
+        }
+
+        MethodHandle existing = typedHandles.putIfAbsent(type, adapted);
+        return existing != null ? existing : adapted;
+    }
+
+    private MethodHandle getGetter() throws IllegalAccessException{
+        MethodHandle handle = getter;
+        if(handle == null){
+            handle = MethodHandles.lookup().unreflectGetter(field);
+            if(isStatic){
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            getter = handle;
+        }
+        return handle;
+    }
+
+    private MethodHandle getSetter() throws IllegalAccessException{
+        MethodHandle handle = setter;
+        if(handle == null){
+            //Fails for final fields, which Field.set() can't write either without setAccessible()
+            handle = MethodHandles.lookup().unreflectSetter(field);
+            if(isStatic){
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            setter = handle;
+        }
+        return handle;
+    }
+
+}
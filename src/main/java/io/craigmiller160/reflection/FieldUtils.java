@@ -0,0 +1,233 @@
+package io.craigmiller160.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Finds public fields by name and reads or writes them, the field
+ * counterpart of FindAndInvoke. Each field is resolved once per
+ * Class, and accessed through a cached MethodHandle rather than
+ * Field.get() and Field.set(). The typed methods, such as getInt()
+ * and setInt(), read and write primitive fields without boxing.
+ *
+ * The methods that take several targets use the first target that
+ * has a public field with the name, the same way findAndInvokeMethod()
+ * searches its targets. Static fields can be accessed through any
+ * object of the class that declares them.
+ */
+public class FieldUtils {
+
+    private static final MethodType GET_INT = MethodType.methodType(int.class, Object.class);
+    private static final MethodType GET_LONG = MethodType.methodType(long.class, Object.class);
+    private static final MethodType GET_DOUBLE = MethodType.methodType(double.class, Object.class);
+    private static final MethodType GET_BOOLEAN = MethodType.methodType(boolean.class, Object.class);
+    private static final MethodType SET_INT = MethodType.methodType(void.class, Object.class, int.class);
+    private static final MethodType SET_LONG = MethodType.methodType(void.class, Object.class, long.class);
+    private static final MethodType SET_DOUBLE = MethodType.methodType(void.class, Object.class, double.class);
+    private static final MethodType SET_BOOLEAN = MethodType.methodType(void.class, Object.class, boolean.class);
+
+    /**
+     * Find the public field with the provided name on the object.
+     *
+     * @param target the object to find the field on.
+     * @param fieldName the name of the field.
+     * @return the field.
+     * @throws NoSuchFieldException if the object has no public field with that name.
+     */
+    public static Field findField(Object target, String fieldName) throws NoSuchFieldException{
+        return accessorFor(target, fieldName).getField();
+    }
+
+    /**
+     * Read the value of the field.
+     *
+     * @param target the object to read the field from.
+     * @param fieldName the name of the field.
+     * @return the value of the field, boxed if it is primitive.
+     * @throws NoSuchFieldException if the object has no public field with that name.
+     * @throws IllegalAccessException if the field isn't accessible.
+     */
+    public static Object getField(Object target, String fieldName) throws NoSuchFieldException, IllegalAccessException{
+        MethodHandle handle = accessorFor(target, fieldName).getter(FieldAccessor.GETTER_TYPE);
+        try{
+            return (Object) handle.invokeExact(target);
+        }
+        catch(Throwable t){
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Read the value of the field from the first of the
+     * objects that has a public field with the name.
+     *
+     * @param targets the objects to search for the field.
+     * @param fieldName the name of the field.
+     * @return the value of the field, boxed if it is primitive.
+     * @throws NoSuchFieldException if none of the objects has a public field with that name.
+     * @throws IllegalAccessException if the field isn't accessible.
+     */
+    public static Object getField(Object[] targets, String fieldName) throws NoSuchFieldException, IllegalAccessException{
+        return getField(findTarget(targets, fieldName), fieldName);
+    }
+
+    /**
+     * Write the value of the field.
+     *
+     * @param target the object to write the field on.
+     * @param fieldName the name of the field.
+     * @param value the new value, which is unboxed if the field is primitive.
+     * @throws NoSuchFieldException if the object has no public field with that name.
+     * @throws IllegalAccessException if the field isn't accessible, or is final.
+     * @throws IllegalArgumentException if the value can't be assigned to the field.
+     */
+    public static void setField(Object target, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException{
+        FieldAccessor accessor = accessorFor(target, fieldName);
+        MethodHandle handle = accessor.setter(FieldAccessor.SETTER_TYPE);
+        //The handle would unbox the null and throw a NullPointerException
+        if(value == null && accessor.getField().getType().isPrimitive()){
+            throw new IllegalArgumentException("Cannot set primitive field " + fieldName + " to null");
+        }
+
+        try{
+            handle.invokeExact(target, value);
+        }
+        catch(Throwable t){
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Write the value of the field on the first of the
+     * objects that has a public field with the name.
+     *
+     * @param targets the objects to search for the field.
+     * @param fieldName the name of the field.
+     * @param value the new value, which is unboxed if the field is primitive.
+     * @throws NoSuchFieldException if none of the objects has a public field with that name.
+     * @throws IllegalAccessException if the field isn't accessible, or is final.
+     * @throws IllegalArgumentException if the value can't be assigned to the field.
+     */
+    public static void setField(Object[] targets, String fieldName, Object value) throws NoSuchFieldException, IllegalAccessException{
+        setField(findTarget(targets, fieldName), fieldName, value);
+    }
+
+    public static int getInt(Object target, String fieldName) throws NoSuchFieldException, IllegalAccessException{
+        MethodHandle handle = accessorFor(target, fieldName).getter(GET_INT);
+        try{
+            return (int) handle.invokeExact(target);
+        }
+        catch(Throwable t){
+            throw rethrow(t);
+        }
+    }
+
+    public static long getLong(Object target, String fieldName) throws NoSuchFieldException, IllegalAccessException{
+        MethodHandle handle = accessorFor(target, fieldName).getter(GET_LONG);
+        try{
+            return (long) handle.invokeExact(target);
+        }
+        catch(Throwable t){
+            throw rethrow(t);
+        }
+    }
+
+    public static double getDouble(Object target, String fieldName) throws NoSuchFieldException, IllegalAccessException{
+        MethodHandle handle = accessorFor(target, fieldName).getter(GET_DOUBLE);
+        try{
+            return (double) handle.invokeExact(target);
+        }
+        catch(Throwable t){
+            throw rethrow(t);
+        }
+    }
+
+    public static boolean getBoolean(Object target, String fieldName) throws NoSuchFieldException, IllegalAccessException{
+        MethodHandle handle = accessorFor(target, fieldName).getter(GET_BOOLEAN);
+        try{
+            return (boolean) handle.invokeExact(target);
+        }
+        catch(Throwable t){
+            throw rethrow(t);
+        }
+    }
+
+    public static void setInt(Object target, String fieldName, int value) throws NoSuchFieldException, IllegalAccessException{
+        MethodHandle handle = accessorFor(target, fieldName).setter(SET_INT);
+        try{
+            handle.invokeExact(target, value);
+        }
+        catch(Throwable t){
+            throw rethrow(t);
+        }
+    }
+
+    public static void setLong(Object target, String fieldName, long value) throws NoSuchFieldException, IllegalAccessException{
+        MethodHandle handle = accessorFor(target, fieldName).setter(SET_LONG);
+        try{
+            handle.invokeExact(target, value);
+        }
+        catch(Throwable t){
+            throw rethrow(t);
+        }
+    }
+
+    public static void setDouble(Object target, String fieldName, double value) throws NoSuchFieldException, IllegalAccessException{
+        MethodHandle handle = accessorFor(target, fieldName).setter(SET_DOUBLE);
+        try{
+            handle.invokeExact(target, value);
+        }
+        catch(Throwable t){
+            throw rethrow(t);
+        }
+    }
+
+    public static void setBoolean(Object target, String fieldName, boolean value) throws NoSuchFieldException, IllegalAccessException{
+        MethodHandle handle = accessorFor(target, fieldName).setter(SET_BOOLEAN);
+        try{
+            handle.invokeExact(target, value);
+        }
+        catch(Throwable t){
+            throw rethrow(t);
+        }
+    }
+
+    private static FieldAccessor accessorFor(Object target, String fieldName) throws NoSuchFieldException{
+        FieldAccessor accessor = FieldAccessor.forField(target.getClass(), fieldName);
+        if(accessor == null){
+            throw new NoSuchFieldException("No public field found: " + target.getClass().getName() + "." + fieldName);
+        }
+        return accessor;
+    }
+
+    private static Object findTarget(Object[] targets, String fieldName) throws NoSuchFieldException{
+        for(Object target : targets){
+            if(FieldAccessor.forField(target.getClass(), fieldName) != null){
+                return target;
+            }
+        }
+        throw new NoSuchFieldException("No public field found: " + fieldName);
+    }
+
+    /**
+     * Get the exception to throw for a Throwable thrown while
+     * reading or writing a field, which can't be anything checked.
+     * A ClassCastException can only come from a value or target of
+     * the wrong type, so it is converted to the IllegalArgumentException
+     * Field.get() and Field.set() would throw.
+     */
+    private static RuntimeException rethrow(Throwable t){
+        if(t instanceof ClassCastException){
+            return new IllegalArgumentException(t.getMessage(), t);
+        }
+        else if(t instanceof RuntimeException){
+            return (RuntimeException) t;
+        }
+        else if(t instanceof Error){
+            throw (Error) t;
+        }
+        return new IllegalStateException(t);
+    }
+
+}
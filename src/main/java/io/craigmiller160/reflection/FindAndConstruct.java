@@ -0,0 +1,72 @@
+package io.craigmiller160.reflection;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+/**
+ * Finds the public constructor of a class that matches a set of
+ * arguments, and creates a new object with it. Constructors are
+ * matched by the same rules FindAndInvoke uses for methods, including
+ * varArgs, and tried in the order Class.getConstructors() returns them.
+ *
+ * The matching constructor is cached per combination of class and
+ * argument classes, and called through a MethodHandle, so repeatedly
+ * creating objects of the same class with the same kinds of arguments
+ * doesn't repeat the matching or go through Constructor.newInstance().
+ */
+public class FindAndConstruct {
+
+    /**
+     * Create a new object of the class, with the public
+     * constructor that matches the arguments.
+     *
+     * @param type the class to create an object of.
+     * @param args the arguments to pass to the constructor.
+     * @param <T> the type of the object.
+     * @return the new object.
+     * @throws NoSuchMethodException if no public constructor matches the arguments.
+     * @throws InstantiationException if the class is abstract or an interface.
+     * @throws IllegalAccessException if the matching constructor isn't accessible.
+     * @throws InvocationTargetException if the constructor throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     */
+    public static <T> T findAndConstruct(Class<T> type, Object...args)
+            throws NoSuchMethodException, InstantiationException, IllegalAccessException, InvocationTargetException{
+        if(Modifier.isAbstract(type.getModifiers())){
+            throw new InstantiationException("Cannot construct abstract class or interface: " + type.getName());
+        }
+
+        ConstructorIndex.Match match = findMatch(type, args);
+        return type.cast(match.newInstance(args));
+    }
+
+    /**
+     * Find the public constructor of the class that matches the
+     * arguments, without calling it.
+     *
+     * @param type the class to find the constructor of.
+     * @param args the arguments that would be passed to the constructor.
+     * @param <T> the type of the object the constructor creates.
+     * @return the matching constructor.
+     * @throws NoSuchMethodException if no public constructor matches the arguments.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Constructor<T> findConstructor(Class<T> type, Object...args) throws NoSuchMethodException{
+        return (Constructor<T>) findMatch(type, args).getConstructor();
+    }
+
+    private static ConstructorIndex.Match findMatch(Class<?> type, Object...args) throws NoSuchMethodException{
+        ConstructorIndex index = ConstructorIndex.forClass(type);
+        ConstructorIndex.Match match = index.findMatch(args);
+        if(!match.isMatch()){
+            if(!index.hasConstructors()){
+                throw new NoSuchMethodException("No public constructors exist: " + type.getName());
+            }
+            throw new NoSuchMethodException("No matching constructor found: " + type.getName() + " " + Arrays.toString(args));
+        }
+        return match;
+    }
+
+}
@@ -6,12 +6,38 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Created by Craig on 2/14/2016.
  */
 public class FindAndInvoke {
 
+    private static final ResolutionCache RESOLUTION_CACHE = ResolutionCache.fromSystemProperties();
+
+    /**
+     * Find the method on the object that matches the signature and
+     * params, and invoke it. The methodSig is usually just the name of
+     * the method, and the first overload whose parameters accept the
+     * params is invoked. It can also be a full signature, such as
+     * "process(java.lang.String,int...)", with the parameter types
+     * written the way Class.getTypeName() writes them. The method
+     * with exactly that signature is then invoked, without checking
+     * the params against any overloads.
+     *
+     * @param object the object to invoke the method on.
+     * @param methodSig the name or full signature of the method.
+     * @param newParams the params to invoke the method with.
+     * @return the result of the method, or null if it is void.
+     * @throws NoSuchMethodException if no method matches.
+     * @throws IllegalAccessException if the matching method isn't accessible.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     */
     public static Object findAndInvokeMethod(Object object, String methodSig, Object...newParams)
             throws NoSuchMethodException, IllegalAccessException, InvocationTargetException{
         ObjectAndMethod oam = getMatchingMethodForSingle(object, methodSig, newParams);
@@ -19,11 +45,7 @@ public class FindAndInvoke {
             throw new NoSuchMethodException("No matching method found: " + methodSig + " " + Arrays.toString(newParams));
         }
 
-        if(oam.isVarArgs()){
-            newParams = MethodUtils.convertParamsForVarArgsMethod(oam.getMethod(), newParams);
-        }
-
-        return invokeMethod(oam, newParams);
+        return invokeMatch(oam, newParams);
     }
 
     public static Object findAndInvokeMethod(Object[] objects, String methodSig, Object...newParams)
@@ -33,11 +55,7 @@ public class FindAndInvoke {
             throw new NoSuchMethodException("No matching method found: " + methodSig + " " + Arrays.toString(newParams));
         }
 
-        if(oam.isVarArgs()){
-            newParams = MethodUtils.convertParamsForVarArgsMethod(oam.getMethod(), newParams);
-        }
-
-        return invokeMethod(oam, newParams);
+        return invokeMatch(oam, newParams);
     }
 
     public static Object findAndInvokeMethod(Collection<?> objects, String methodSig, Object...newParams)
@@ -45,79 +63,716 @@ public class FindAndInvoke {
         return findAndInvokeMethod(objects.toArray(), methodSig, newParams);
     }
 
-    private static Object invokeMethod(ObjectAndMethod oam, Object...newParams)
-            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException{
-        Object result = null;
+    /**
+     * Find and invoke the method, the same as findAndInvokeMethod(), but
+     * without throwing an exception if no method matches. This is for
+     * callers where a miss is a normal outcome. Misses are cached the same
+     * as matches, so a repeated miss costs a cache lookup, and no exception
+     * or message is built unless the result is asked for one.
+     *
+     * @param object the object to invoke the method on.
+     * @param methodSig the signature of the method to search for.
+     * @param newParams the params to invoke the method with.
+     * @return the result, which holds the value if a method matched.
+     * @throws IllegalAccessException if the matching method isn't accessible.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     */
+    public static InvocationResult tryFindAndInvokeMethod(Object object, String methodSig, Object...newParams)
+            throws IllegalAccessException, InvocationTargetException{
+        Resolution resolution = resolve(new Object[]{object}, methodSig, newParams);
+        if(!resolution.isMatch()){
+            return InvocationResult.missed(resolution.hasCandidates(), true, methodSig, newParams);
+        }
+
+        return InvocationResult.matched(invokeMatch(new ObjectAndMethod(object, resolution.getMethod()), newParams));
+    }
+
+    /**
+     * Find and invoke the method on the first of the objects that has a
+     * match, the same as findAndInvokeMethod(), but without throwing an
+     * exception if no method matches.
+     *
+     * @param objects the objects to search for a matching method.
+     * @param methodSig the signature of the method to search for.
+     * @param newParams the params to invoke the method with.
+     * @return the result, which holds the value if a method matched.
+     * @throws IllegalAccessException if the matching method isn't accessible.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     */
+    public static InvocationResult tryFindAndInvokeMethod(Object[] objects, String methodSig, Object...newParams)
+            throws IllegalAccessException, InvocationTargetException{
+        Resolution resolution = resolve(objects, methodSig, newParams);
+        if(!resolution.isMatch()){
+            return InvocationResult.missed(resolution.hasCandidates(), false, methodSig, newParams);
+        }
+
+        ObjectAndMethod oam = new ObjectAndMethod(objects[resolution.getTargetIndex()], resolution.getMethod());
+        return InvocationResult.matched(invokeMatch(oam, newParams));
+    }
+
+    public static InvocationResult tryFindAndInvokeMethod(Collection<?> objects, String methodSig, Object...newParams)
+            throws IllegalAccessException, InvocationTargetException{
+        return tryFindAndInvokeMethod(objects.toArray(), methodSig, newParams);
+    }
+
+    /**
+     * Invoke the method with the same params on every one of the targets.
+     * The method is resolved once for each distinct class among the targets,
+     * rather than once for each target. If an invocation fails, the exception
+     * is recorded in the result for that target, and the rest of the targets
+     * are still invoked.
+     *
+     * @param targets the objects to invoke the method on.
+     * @param methodSig the signature of the method to invoke.
+     * @param newParams the params to invoke the method with.
+     * @return the result of each invocation, in the same order as the targets.
+     */
+    public static BatchResult invokeOnAll(Object[] targets, String methodSig, Object...newParams){
+        BatchResult result = new BatchResult(targets.length);
+        BatchInvocation.invokeOnAll(targets, methodSig, newParams, 0, targets.length, result);
+        return result;
+    }
+
+    public static BatchResult invokeOnAll(Collection<?> targets, String methodSig, Object...newParams){
+        return invokeOnAll(targets.toArray(), methodSig, newParams);
+    }
+
+    /**
+     * Invoke the method on the target once for each of the rows of params.
+     * The method is resolved once for each distinct combination of param
+     * classes among the rows, rather than once for each row. If an invocation
+     * fails, the exception is recorded in the result for that row, and the rest
+     * of the rows are still invoked.
+     *
+     * @param target the object to invoke the method on.
+     * @param methodSig the signature of the method to invoke.
+     * @param argRows the rows of params to invoke the method with.
+     * @return the result of each invocation, in the same order as the rows.
+     */
+    public static BatchResult invokeForEach(Object target, String methodSig, Object[][] argRows){
+        BatchResult result = new BatchResult(argRows.length);
+        BatchInvocation.invokeForEach(target, methodSig, argRows, 0, argRows.length, result);
+        return result;
+    }
+
+    public static BatchResult invokeForEach(Object target, String methodSig, List<Object[]> argRows){
+        return invokeForEach(target, methodSig, argRows.toArray(new Object[argRows.size()][]));
+    }
+
+    /**
+     * Invoke the method with the same params on every one of the targets,
+     * the same as invokeOnAll(), but split across the threads of the common
+     * ForkJoinPool.
+     *
+     * @param targets the objects to invoke the method on.
+     * @param methodSig the signature of the method to invoke.
+     * @param newParams the params to invoke the method with.
+     * @return the result of each invocation, in the same order as the targets.
+     */
+    public static BatchResult invokeOnAllParallel(Object[] targets, String methodSig, Object...newParams){
+        return invokeOnAllParallel(BatchExecutors.defaultExecutor(), targets, methodSig, newParams);
+    }
+
+    /**
+     * Invoke the method with the same params on every one of the targets,
+     * the same as invokeOnAll(), but split across the provided executor.
+     * See BatchExecutors for the executors available. This blocks until
+     * the whole batch has been invoked. Any part of the batch the executor
+     * rejects is invoked on the calling thread instead.
+     *
+     * @param executor the executor to run the invocations on.
+     * @param targets the objects to invoke the method on.
+     * @param methodSig the signature of the method to invoke.
+     * @param newParams the params to invoke the method with.
+     * @return the result of each invocation, in the same order as the targets.
+     */
+    public static BatchResult invokeOnAllParallel(Executor executor, Object[] targets, String methodSig, Object...newParams){
+        BatchResult result = new BatchResult(targets.length);
+        BatchInvocation.invokeParallel(targets.length, executor,
+                (from, to) -> BatchInvocation.invokeOnAll(targets, methodSig, newParams, from, to, result));
+        return result;
+    }
+
+    /**
+     * Invoke the method on the target once for each of the rows of params,
+     * the same as invokeForEach(), but split across the threads of the common
+     * ForkJoinPool.
+     *
+     * @param target the object to invoke the method on.
+     * @param methodSig the signature of the method to invoke.
+     * @param argRows the rows of params to invoke the method with.
+     * @return the result of each invocation, in the same order as the rows.
+     */
+    public static BatchResult invokeForEachParallel(Object target, String methodSig, Object[][] argRows){
+        return invokeForEachParallel(BatchExecutors.defaultExecutor(), target, methodSig, argRows);
+    }
+
+    /**
+     * Invoke the method on the target once for each of the rows of params,
+     * the same as invokeForEach(), but split across the provided executor.
+     * See BatchExecutors for the executors available. This blocks until
+     * the whole batch has been invoked. Any part of the batch the executor
+     * rejects is invoked on the calling thread instead.
+     *
+     * @param executor the executor to run the invocations on.
+     * @param target the object to invoke the method on.
+     * @param methodSig the signature of the method to invoke.
+     * @param argRows the rows of params to invoke the method with.
+     * @return the result of each invocation, in the same order as the rows.
+     */
+    public static BatchResult invokeForEachParallel(Executor executor, Object target, String methodSig, Object[][] argRows){
+        BatchResult result = new BatchResult(argRows.length);
+        BatchInvocation.invokeParallel(argRows.length, executor,
+                (from, to) -> BatchInvocation.invokeForEach(target, methodSig, argRows, from, to, result));
+        return result;
+    }
+
+    /**
+     * Resolve a method ahead of time, for repeated invocation on
+     * objects of the target type with arguments of the provided types.
+     * The matching follows the same rules as findAndInvokeMethod(), but
+     * it is only done once, here, rather than on every invocation.
+     * The methodSig can be a full signature, in which case the argument
+     * types must be a valid invocation of exactly that method.
+     *
+     * @param type the type of the objects the method will be invoked on.
+     * @param methodSig the signature of the method to search for.
+     * @param argTypes the types of the arguments the method will be invoked with.
+     * @return the invoker for the matching method.
+     * @throws NoSuchMethodException if no method matches.
+     * @throws IllegalAccessException if the matching method isn't accessible.
+     */
+    public static PreparedInvoker prepare(Class<?> type, String methodSig, Class<?>...argTypes)
+            throws NoSuchMethodException, IllegalAccessException{
+        if(MethodSignature.isFullSignature(methodSig)){
+            Method method = MethodIndex.forClass(type).getMethod(MethodSignature.parse(methodSig));
+            if(method != null && MethodUtils.isValidInvocationForTypes(method, argTypes)){
+                return new PreparedInvoker(type, method, argTypes);
+            }
+            throw new NoSuchMethodException("No matching method found: " + type.getName() + "." + methodSig + " " + Arrays.toString(argTypes));
+        }
+
+        OverloadIndex overloads = MethodIndex.forClass(type).getOverloads(methodSig);
+        int match = overloads.findMatch(true, (Object[]) argTypes);
+        if(match >= 0){
+            return new PreparedInvoker(type, overloads.getTemplate(match).getMethod(), argTypes);
+        }
+        throw new NoSuchMethodException("No matching method found: " + type.getName() + "." + methodSig + " " + Arrays.toString(argTypes));
+    }
+
+    /**
+     * Create a call site for the method signature, with its own
+     * inline cache of resolved methods. Code that repeatedly invokes
+     * the same method from the same place can hold onto the call
+     * site, so that repeat invocations cost a few class identity
+     * checks rather than a lookup in the global resolution cache.
+     *
+     * @param methodSig the signature of the method the call site invokes.
+     * @return the new call site.
+     */
+    public static InlineCallSite callSite(String methodSig){
+        return new InlineCallSite(methodSig);
+    }
+
+    /**
+     * Build the method indexes and invokers for the classes ahead of
+     * time, on the common ForkJoinPool, so the first invocations on
+     * them don't pay for it. This blocks until it is done.
+     *
+     * @param classes the classes to warm up.
+     * @param methodNames the names or full signatures of the methods to
+     *                    warm up, or none to warm up every public method.
+     * @return what was warmed up.
+     */
+    public static WarmUpResult warmUp(Collection<? extends Class<?>> classes, String...methodNames){
+        return warmUp(ForkJoinPool.commonPool(), 0, classes, methodNames);
+    }
+
+    /**
+     * Build the method indexes and invokers for the classes ahead of
+     * time, on the provided pool, so the first invocations on them
+     * don't pay for it. Each class is warmed up as a separate task.
+     * This blocks until it is done.
+     *
+     * Synthetic invocations can also be run, to get the dispatch path
+     * compiled by the JIT before real traffic arrives. These never
+     * invoke methods on the provided classes, since that could have
+     * side effects; they invoke an internal target instead.
+     *
+     * @param pool the pool to run the warm up on.
+     * @param syntheticInvocations the number of synthetic invocations
+     *                             to run, or zero for none.
+     * @param classes the classes to warm up.
+     * @param methodNames the names or full signatures of the methods to
+     *                    warm up, or none to warm up every public method.
+     * @return what was warmed up.
+     * @throws IllegalArgumentException if syntheticInvocations is negative,
+     *          or a full signature is malformed.
+     */
+    public static WarmUpResult warmUp(ForkJoinPool pool, int syntheticInvocations, Collection<? extends Class<?>> classes, String...methodNames){
+        return WarmUp.run(pool, classes, methodNames, syntheticInvocations);
+    }
+
+    /**
+     * Find and invoke the method asynchronously, on the common ForkJoinPool.
+     * See findAndInvokeMethodAsync(Executor, Object, String, Object...).
+     */
+    public static CompletableFuture<Object> findAndInvokeMethodAsync(Object object, String methodSig, Object...newParams){
+        return findAndInvokeMethodAsync(BatchExecutors.defaultExecutor(), object, methodSig, newParams);
+    }
+
+    /**
+     * Find and invoke the method asynchronously, on the common ForkJoinPool.
+     * See findAndInvokeMethodAsync(Executor, Object[], String, Object...).
+     */
+    public static CompletableFuture<Object> findAndInvokeMethodAsync(Object[] objects, String methodSig, Object...newParams){
+        return findAndInvokeMethodAsync(BatchExecutors.defaultExecutor(), objects, methodSig, newParams);
+    }
+
+    /**
+     * Find and invoke the method asynchronously, on the common ForkJoinPool.
+     * See findAndInvokeMethodAsync(Executor, Collection, String, Object...).
+     */
+    public static CompletableFuture<Object> findAndInvokeMethodAsync(Collection<?> objects, String methodSig, Object...newParams){
+        return findAndInvokeMethodAsync(BatchExecutors.defaultExecutor(), objects, methodSig, newParams);
+    }
+
+    /**
+     * Find and invoke the method on the object, the same as
+     * findAndInvokeMethod(Object, String, Object...), but on the
+     * provided executor. The future completes with the result of the
+     * method, or completes exceptionally with exactly the exception
+     * findAndInvokeMethod() would have thrown.
+     *
+     * @param executor the executor to invoke the method on.
+     * @param object the object to invoke the method on.
+     * @param methodSig the signature of the method to invoke.
+     * @param newParams the params to invoke the method with.
+     * @return the future result of the method.
+     */
+    public static CompletableFuture<Object> findAndInvokeMethodAsync(Executor executor, Object object, String methodSig, Object...newParams){
+        return invokeAsync(executor, () -> findAndInvokeMethod(object, methodSig, newParams));
+    }
+
+    /**
+     * Find and invoke the method on the first of the objects with a match,
+     * the same as findAndInvokeMethod(Object[], String, Object...), but on
+     * the provided executor. The future completes with the result of the
+     * method, or completes exceptionally with exactly the exception
+     * findAndInvokeMethod() would have thrown.
+     *
+     * @param executor the executor to invoke the method on.
+     * @param objects the objects to search for the method.
+     * @param methodSig the signature of the method to invoke.
+     * @param newParams the params to invoke the method with.
+     * @return the future result of the method.
+     */
+    public static CompletableFuture<Object> findAndInvokeMethodAsync(Executor executor, Object[] objects, String methodSig, Object...newParams){
+        return invokeAsync(executor, () -> findAndInvokeMethod(objects, methodSig, newParams));
+    }
+
+    /**
+     * Find and invoke the method on the first of the objects with a match,
+     * the same as findAndInvokeMethod(Collection, String, Object...), but on
+     * the provided executor. The future completes with the result of the
+     * method, or completes exceptionally with exactly the exception
+     * findAndInvokeMethod() would have thrown.
+     *
+     * @param executor the executor to invoke the method on.
+     * @param objects the objects to search for the method.
+     * @param methodSig the signature of the method to invoke.
+     * @param newParams the params to invoke the method with.
+     * @return the future result of the method.
+     */
+    public static CompletableFuture<Object> findAndInvokeMethodAsync(Executor executor, Collection<?> objects, String methodSig, Object...newParams){
+        return invokeAsync(executor, () -> findAndInvokeMethod(objects, methodSig, newParams));
+    }
+
+    private static CompletableFuture<Object> invokeAsync(Executor executor, Callable<Object> invocation){
+        CompletableFuture<Object> future = new CompletableFuture<>();
         try{
-            result = oam.getMethod().invoke(oam.getObject(), newParams);
+            executor.execute(() -> {
+                try{
+                    future.complete(invocation.call());
+                }
+                catch(Throwable t){
+                    future.completeExceptionally(t);
+                }
+            });
         }
-        catch(InvocationTargetException ex){
-            if(ex.getCause() instanceof RuntimeException){
-                throw (RuntimeException) ex.getCause();
+        catch(RejectedExecutionException ex){
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    /**
+     * Invoke a matching method, converting the params first if it
+     * is a varArgs method. The converted params are put in a per-thread
+     * buffer, which is cleared once the invocation is complete, so
+     * the only new array is the varArgs array the method receives.
+     *
+     * @param oam the matching method and the object to invoke it on.
+     * @param newParams the params, not yet converted for varArgs.
+     * @return the result of the method.
+     */
+    static Object invokeMatch(ObjectAndMethod oam, Object...newParams)
+            throws IllegalAccessException, InvocationTargetException{
+        return invokeMatch(oam, DispatchMetrics.getListener(), newParams);
+    }
+
+    /**
+     * Invoke a matching method, reporting to the provided listener
+     * rather than the installed one.
+     *
+     * @param oam the matching method and the object to invoke it on.
+     * @param listener the listener to report to, or null to report nothing.
+     * @param newParams the params, not yet converted for varArgs.
+     * @return the result of the method.
+     */
+    static Object invokeMatch(ObjectAndMethod oam, DispatchListener listener, Object[] newParams)
+            throws IllegalAccessException, InvocationTargetException{
+        if(!oam.isVarArgs()){
+            return invokeMethod(oam, listener, newParams);
+        }
+
+        Object[] buffer = MethodUtils.getThreadLocalBuffer(oam.getParamCount());
+        try{
+            long start = listener != null ? System.nanoTime() : 0L;
+            Object[] converted = MethodUtils.convertParamsForVarArgs(oam.getParamTypes(), buffer, newParams);
+            if(listener != null){
+                listener.onConversion(oam.getMethod().getName(), System.nanoTime() - start);
             }
-            else if(ex.getCause() instanceof Error){
-                throw (Error) ex.getCause();
+            return invokeMethod(oam, listener, converted);
+        }
+        finally{
+            if(buffer != null){
+                Arrays.fill(buffer, null);
             }
-            throw ex;
         }
-        return result;
+    }
+
+    /**
+     * Invoke the method through its cached MethodInvoker. If the
+     * method throws a RuntimeException or an Error, it is thrown
+     * directly, otherwise it is wrapped in an InvocationTargetException.
+     *
+     * @param oam the method and the object to invoke it on.
+     * @param listener the listener to report to, or null to report nothing.
+     * @param newParams the params, already converted for varArgs.
+     * @return the result of the method.
+     */
+    private static Object invokeMethod(ObjectAndMethod oam, DispatchListener listener, Object[] newParams)
+            throws IllegalAccessException, InvocationTargetException{
+        return invokeMethod(MethodInvoker.forMethod(oam.getMethod()), oam.getObject(), listener, newParams);
+    }
+
+    /**
+     * Invoke the method through a MethodInvoker the caller already
+     * holds, reporting the invocation to the listener.
+     *
+     * @param invoker the invoker for the method.
+     * @param target the object to invoke the method on.
+     * @param listener the listener to report to, or null to report nothing.
+     * @param newParams the params, already converted for varArgs.
+     * @return the result of the method.
+     */
+    static Object invokeMethod(MethodInvoker invoker, Object target, DispatchListener listener, Object[] newParams)
+            throws InvocationTargetException{
+        if(listener == null){
+            return invoker.invoke(target, newParams);
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try{
+            Object result = invoker.invoke(target, newParams);
+            failed = false;
+            return result;
+        }
+        finally{
+            listener.onInvocation(invoker.getMethod().getName(), failed, System.nanoTime() - start);
+        }
     }
 
     //TODO document this
     private static ObjectAndMethod getMatchingMethod(Object[] objects, String methodSig, Object...newParams) throws NoSuchMethodException{
-        List<ObjectAndMethod> potentialMatches = getPotentialMatchingMethodsFromMultiple(objects, methodSig);
+        Resolution resolution = resolve(objects, methodSig, newParams);
 
-        for(ObjectAndMethod oam : potentialMatches){
-            if(MethodUtils.isValidInvocation(oam.getMethod(), newParams)){
-                return oam;
-            }
+        //If no methods with the name are found, throw an exception
+        if(!resolution.hasCandidates()){
+            throw new NoSuchMethodException("No methods exist matching this signature: " + methodSig);
+        }
+
+        if(resolution.isMatch()){
+            return new ObjectAndMethod(objects[resolution.getTargetIndex()], resolution.getMethod());
         }
         return null;
     }
 
     private static ObjectAndMethod getMatchingMethodForSingle(Object object, String methodSig, Object...newParams) throws NoSuchMethodException{
-        List<ObjectAndMethod> potentialMatches = getPotentialMatchesFromSingle(methodSig, object);
+        Resolution resolution = resolve(new Object[]{object}, methodSig, newParams);
+        if(resolution.isMatch()){
+            return new ObjectAndMethod(object, resolution.getMethod());
+        }
+        return null;
+    }
+
+    /**
+     * Get the cache of method resolutions used by this class.
+     * This is exposed so its hit, miss, and eviction counts
+     * can be monitored. Its maximum size can be set with the
+     * ResolutionCache.MAX_SIZE_PROPERTY system property.
+     *
+     * @return the resolution cache.
+     */
+    public static ResolutionCache getResolutionCache(){
+        return RESOLUTION_CACHE;
+    }
+
+    /**
+     * Set the number of times a method must be invoked, through this
+     * class or a PreparedInvoker, before a dedicated accessor class is
+     * generated for it. Invoking through the accessor is close to the
+     * speed of a direct call. Methods that an accessor can't be generated
+     * for, such as void methods or methods that aren't visible to this
+     * library, keep using the MethodHandle path.
+     *
+     * Compilation is disabled by default. The initial threshold can also
+     * be set with the io.craigmiller160.reflection.compileThreshold system
+     * property.
+     *
+     * @param threshold the number of invocations before a method is compiled.
+     *                  Zero compiles methods on their first invocation, and
+     *                  a negative value disables compilation.
+     */
+    public static void setCompileThreshold(int threshold){
+        MethodInvoker.setCompileThreshold(threshold);
+    }
 
-        for(ObjectAndMethod oam : potentialMatches){
-            if(MethodUtils.isValidInvocation(oam.getMethod(), newParams)){
-                return oam;
+    /**
+     * Get the number of times a method must be invoked before a
+     * dedicated accessor class is generated for it.
+     *
+     * @return the compile threshold, or a negative value if compilation
+     *          is disabled.
+     */
+    public static int getCompileThreshold(){
+        return MethodInvoker.getCompileThreshold();
+    }
+
+    /**
+     * Resolve which method on which of the objects should be
+     * invoked for the provided arguments. The outcome is cached
+     * by the runtime classes of the objects and the arguments, so
+     * repeat invocations skip the overload matching. Null arguments
+     * have no runtime class, so those invocations always go through
+     * the full matching process.
+     *
+     * @param objects the objects to search for a matching method.
+     * @param methodSig the signature of the method to search for.
+     * @param newParams the arguments the method will be invoked with.
+     * @return the outcome of the resolution.
+     */
+    private static Resolution resolve(Object[] objects, String methodSig, Object[] newParams){
+        return resolve(ResolutionKey.classesOf(objects), objects, methodSig, newParams);
+    }
+
+    /**
+     * Resolve which method on which of the objects should be invoked,
+     * when the classes of the objects are already known.
+     *
+     * @param receiverClasses the classes of the objects, or null if any are null.
+     * @param objects the objects to search for a matching method.
+     * @param methodSig the signature of the method to search for.
+     * @param newParams the arguments the method will be invoked with.
+     * @return the outcome of the resolution.
+     */
+    static Resolution resolve(Class<?>[] receiverClasses, Object[] objects, String methodSig, Object[] newParams){
+        return resolve(receiverClasses, objects, methodSig, newParams, RESOLUTION_CACHE, DispatchMetrics.getListener());
+    }
+
+    /**
+     * Resolve which method on which of the objects should be invoked,
+     * using the provided cache and reporting to the provided listener
+     * rather than the global ones.
+     *
+     * @param receiverClasses the classes of the objects, or null if any are null.
+     * @param objects the objects to search for a matching method.
+     * @param methodSig the signature of the method to search for.
+     * @param newParams the arguments the method will be invoked with.
+     * @param cache the cache to look up and store the resolution in.
+     * @param listener the listener to report to, or null to report nothing.
+     * @return the outcome of the resolution.
+     */
+    static Resolution resolve(Class<?>[] receiverClasses, Object[] objects, String methodSig, Object[] newParams,
+            ResolutionCache cache, DispatchListener listener){
+        long start = listener != null ? System.nanoTime() : 0L;
+
+        Resolution resolution = null;
+        boolean cacheHit = false;
+        Class<?>[] argClasses = ResolutionKey.classesOf(newParams);
+        if(MethodSignature.isFullSignature(methodSig)){
+            //The exact method is named, so there is nothing to match or cache
+            resolution = findSignature(objects, MethodSignature.parse(methodSig), newParams);
+        }
+        else if(receiverClasses == null || argClasses == null){
+            Validation validation = listener != null ? new Validation() : null;
+            resolution = findResolution(objects, methodSig, newParams, validation);
+            fireValidation(listener, methodSig, validation);
+        }
+        else{
+            ResolutionKey key = new ResolutionKey(receiverClasses, methodSig, argClasses);
+            resolution = cache.get(key);
+            cacheHit = resolution != null;
+            if(resolution == null){
+                //Concurrent first resolutions of the same key only search once
+                Validation validation = listener != null ? new Validation() : null;
+                resolution = cache.computeIfAbsent(key, k -> findResolution(objects, methodSig, newParams, validation));
+                //Only after the cache is done with the key, so the listener can't block other resolutions
+                fireValidation(listener, methodSig, validation);
             }
         }
-        return null;
+
+        if(listener != null){
+            listener.onResolution(methodSig, cacheHit, resolution.isMatch(), System.nanoTime() - start);
+        }
+        return resolution;
     }
 
     /**
-     * Get all potentially matching methods from the collection of
-     * objects provided to this class. A potential match is a method whose
-     * signature matches the provided String, but whose parameter types
-     * haven't been checked yet.
+     * Search the objects, in order, for the first one with a method
+     * with exactly the provided signature. The arguments must still
+     * be a valid invocation of that method, otherwise there is no match.
      *
-     * @param objects the collection of objects to search for a matching method.
-     * @param methodSig the signature of the method to search for a match
-     *                  of.
-     * @return a list of all matching methods paired with the objects they're
-     *          from.
-     * @throws NoSuchMethodException if no potentially matching methods are found.
+     * @param objects the objects to search for the method.
+     * @param signature the signature of the method.
+     * @param newParams the arguments the method will be invoked with.
+     * @return the outcome of the search. Matches have no candidate index.
      */
-    private static List<ObjectAndMethod> getPotentialMatchingMethodsFromMultiple(Object[] objects, String methodSig) throws NoSuchMethodException{
-        List<ObjectAndMethod> matchingMethods = new ArrayList<>();
-        for(Object obj : objects){
-            matchingMethods.addAll(getPotentialMatchesFromSingle(methodSig, obj));
+    private static Resolution findSignature(Object[] objects, MethodSignature signature, Object[] newParams){
+        boolean hasCandidates = false;
+        for(int i = 0; i < objects.length; i++){
+            MethodIndex index = MethodIndex.forClass(objects[i].getClass());
+            Method method = index.getMethod(signature);
+            if(method != null){
+                if(isValidSignatureInvocation(method, newParams)){
+                    return Resolution.match(i, -1, method);
+                }
+                hasCandidates = true;
+                continue;
+            }
+            hasCandidates |= index.getOverloads(signature.getName()).size() > 0;
         }
+        return hasCandidates ? Resolution.noMatch() : Resolution.noCandidates();
+    }
 
-        //If no matches are found, throw an exception
-        if(matchingMethods.size() == 0){
-            throw new NoSuchMethodException("No methods exist matching this signature: " + methodSig);
+    /**
+     * Test if the arguments are a valid invocation of a method named
+     * by its full signature. This follows the same rules as
+     * MethodUtils.isValidInvocation(), except that null arguments are
+     * allowed for any param that isn't primitive, since naming the
+     * exact method means a null doesn't make the match ambiguous.
+     *
+     * @param method the method named by the signature.
+     * @param newParams the arguments it will be invoked with.
+     * @return true if the invocation is valid.
+     */
+    private static boolean isValidSignatureInvocation(Method method, Object[] newParams){
+        Class<?>[] paramTypes = method.getParameterTypes();
+        if(ResolutionKey.classesOf(newParams) != null){
+            return MethodUtils.isValidInvocation(paramTypes, method.isVarArgs(), false, newParams);
+        }
+
+        int fixedCount = method.isVarArgs() ? paramTypes.length - 1 : paramTypes.length;
+        if(newParams.length < fixedCount || (!method.isVarArgs() && newParams.length != fixedCount)){
+            return false;
+        }
+        for(int i = 0; i < fixedCount; i++){
+            if(!acceptsValue(paramTypes[i], newParams[i])){
+                return false;
+            }
         }
 
-        return matchingMethods;
+        if(method.isVarArgs()){
+            Object last = newParams.length == paramTypes.length ? newParams[fixedCount] : null;
+            if(last != null && Assignability.isAssignable(paramTypes[fixedCount], last.getClass())){
+                //An array already provided for the varArgs
+                return true;
+            }
+            Class<?> componentType = paramTypes[fixedCount].getComponentType();
+            for(int i = fixedCount; i < newParams.length; i++){
+                if(!acceptsValue(componentType, newParams[i])){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean acceptsValue(Class<?> paramType, Object value){
+        return value == null ? !paramType.isPrimitive() : Assignability.isAssignable(paramType, value.getClass());
+    }
+
+    /**
+     * Search the objects, in order, for the first method that is
+     * a valid invocation with the provided arguments. Only the
+     * overloads that could take that many arguments are validated.
+     *
+     * @param objects the objects to search for a matching method.
+     * @param methodSig the signature of the method to search for.
+     * @param newParams the arguments the method will be invoked with.
+     * @param validation where to record how many overloads were validated,
+     *                   or null if nothing is listening for it.
+     * @return the outcome of the search.
+     */
+    private static Resolution findResolution(Object[] objects, String methodSig, Object[] newParams, Validation validation){
+        long start = validation != null ? System.nanoTime() : 0L;
+
+        Resolution resolution = null;
+        int candidateOffset = 0;
+        int examined = 0;
+        for(int i = 0; i < objects.length; i++){
+            OverloadIndex overloads = MethodIndex.forClass(objects[i].getClass()).getOverloads(methodSig);
+            if(validation != null){
+                examined += overloads.countPlausible(newParams.length);
+            }
+
+            int match = overloads.findMatch(false, newParams);
+            if(match >= 0){
+                resolution = Resolution.match(i, candidateOffset + match, overloads.getTemplate(match).getMethod());
+                break;
+            }
+            candidateOffset += overloads.size();
+        }
+
+        if(resolution == null){
+            resolution = candidateOffset > 0 ? Resolution.noMatch() : Resolution.noCandidates();
+        }
+        if(validation != null){
+            validation.examined = examined;
+            validation.nanos = System.nanoTime() - start;
+            validation.recorded = true;
+        }
+        return resolution;
+    }
+
+    private static void fireValidation(DispatchListener listener, String methodSig, Validation validation){
+        //Nothing is recorded if another thread did the search
+        if(validation != null && validation.recorded){
+            listener.onValidation(methodSig, validation.examined, validation.nanos);
+        }
     }
 
     /**
      * Get all potentially matching methods from a single class.
      * A potential match is a method whose signature matches the
      * provided String, but whose parameter types haven't been
-     * checked yet.
+     * checked yet. The candidates come from the cached MethodIndex
+     * of the object's class, so getMethods() is only called once
+     * per class.
      *
      * @param methodSig the signature of the method to find a match
      *                  for.
@@ -126,16 +781,27 @@ public class FindAndInvoke {
      * @return a list of any potential matches found, or an empty
      *          list if none are found.
      */
-    private static List<ObjectAndMethod> getPotentialMatchesFromSingle(String methodSig, Object obj){
-        List<ObjectAndMethod> matches = new ArrayList<>();
-        Method[] methods = obj.getClass().getMethods();
-        for(Method m : methods){
-            if(m.getName().equals(methodSig)){
-                matches.add(new ObjectAndMethod(obj, m));
-            }
+    static List<ObjectAndMethod> getPotentialMatchesFromSingle(String methodSig, Object obj){
+        OverloadIndex overloads = MethodIndex.forClass(obj.getClass()).getOverloads(methodSig);
+        List<ObjectAndMethod> matches = new ArrayList<>(overloads.size());
+        for(int i = 0; i < overloads.size(); i++){
+            matches.add(overloads.getTemplate(i).rebind(obj));
         }
 
         return matches;
     }
 
+    /**
+     * How many overloads a resolution validated, and how long it
+     * took, recorded so the listener can be told once the cache
+     * has finished with the key.
+     */
+    private static final class Validation {
+
+        private int examined;
+        private long nanos;
+        private boolean recorded;
+
+    }
+
 }
@@ -0,0 +1,174 @@
+package io.craigmiller160.reflection;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * A bootstrap method for invokedynamic instructions, which links
+ * them to the same resolution FindAndInvoke.findAndInvokeMethod()
+ * does: the method with the call site's name whose parameters
+ * accept the runtime classes of the arguments, with the same
+ * varArgs handling.
+ *
+ * The first parameter of the call site's type is the receiver, and
+ * the rest are the arguments. Each call site starts out unlinked.
+ * The first invocation resolves the method for its receiver and
+ * argument classes and links the call site to that method's
+ * MethodHandle, behind a guard that checks the classes are the same.
+ * A later invocation with different classes fails the guard, and
+ * the new method is linked in front of the old one. The JIT can
+ * inline straight through the guards to the linked methods.
+ *
+ * After MAX_LINKED_TARGETS combinations of classes, a call site
+ * stops linking and resolves every invocation through the global
+ * resolution cache. Invocations with null arguments are resolved
+ * without being linked.
+ *
+ * Exceptions thrown by the invoked method, checked or not, are
+ * thrown directly from the call site.
+ */
+public final class FindAndInvokeBootstrap {
+
+    /**
+     * The number of combinations of receiver and argument classes
+     * a call site links before it falls back to full resolution on
+     * every invocation.
+     */
+    public static final int MAX_LINKED_TARGETS = 8;
+
+    private static final MethodHandle FALLBACK;
+    private static final MethodHandle IS_CLASS;
+
+    static{
+        try{
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            FALLBACK = lookup.findStatic(FindAndInvokeBootstrap.class, "fallback",
+                    MethodType.methodType(Object.class, DispatchCallSite.class, Object[].class));
+            IS_CLASS = lookup.findStatic(FindAndInvokeBootstrap.class, "isClass",
+                    MethodType.methodType(boolean.class, Class.class, Object.class));
+        }
+        catch(NoSuchMethodException | IllegalAccessException ex){
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    private FindAndInvokeBootstrap(){}
+
+    /**
+     * Bootstrap an invokedynamic call site. Methods are resolved and
+     * accessed with this library's access, the same as findAndInvokeMethod(),
+     * not the caller's.
+     *
+     * @param lookup the caller's lookup.
+     * @param methodSig the name of the method to invoke, from the call site.
+     * @param type the type of the call site. The first parameter is the receiver.
+     * @return the call site.
+     * @throws IllegalArgumentException if the type has no receiver parameter,
+     *          or the receiver parameter is primitive.
+     */
+    public static CallSite bootstrap(MethodHandles.Lookup lookup, String methodSig, MethodType type){
+        if(type.parameterCount() == 0 || type.parameterType(0).isPrimitive()){
+            throw new IllegalArgumentException("Call site type must start with a reference receiver: " + type);
+        }
+        return new DispatchCallSite(methodSig, type);
+    }
+
+    /**
+     * Resolve and invoke the method for an invocation that didn't
+     * match any linked target, linking it if possible.
+     */
+    private static Object fallback(DispatchCallSite site, Object[] args) throws Throwable{
+        Object receiver = args[0];
+        Object[] params = Arrays.copyOfRange(args, 1, args.length);
+        Object[] receivers = {receiver};
+        Resolution resolution = FindAndInvoke.resolve(ResolutionKey.classesOf(receivers), receivers, site.methodSig, params);
+        if(!resolution.isMatch()){
+            throw new NoSuchMethodException("No matching method found: " + site.methodSig + " " + Arrays.toString(params));
+        }
+
+        Class<?>[] argClasses = ResolutionKey.classesOf(args);
+        if(argClasses != null){
+            site.link(resolution.getMethod(), argClasses);
+        }
+
+        try{
+            return FindAndInvoke.invokeMatch(new ObjectAndMethod(receiver, resolution.getMethod()), params);
+        }
+        catch(InvocationTargetException ex){
+            throw ex.getCause();
+        }
+    }
+
+    private static boolean isClass(Class<?> type, Object value){
+        return value != null && value.getClass() == type;
+    }
+
+    /**
+     * A call site that relinks itself as it sees new combinations
+     * of receiver and argument classes.
+     */
+    private static final class DispatchCallSite extends MutableCallSite {
+
+        private final String methodSig;
+        private final MethodHandle fallback;
+        private int linkedCount;
+        private boolean megamorphic;
+
+        private DispatchCallSite(String methodSig, MethodType type){
+            super(type);
+            this.methodSig = methodSig;
+            this.fallback = FALLBACK.bindTo(this)
+                    .asCollector(Object[].class, type.parameterCount())
+                    .asType(type);
+            setTarget(fallback);
+        }
+
+        /**
+         * Link the method for the provided argument classes, which
+         * include the receiver, in front of the current target.
+         */
+        private synchronized void link(Method method, Class<?>[] argClasses) throws IllegalAccessException{
+            if(megamorphic){
+                return;
+            }
+            if(linkedCount == MAX_LINKED_TARGETS){
+                //Too many combinations to check one by one, so resolve every invocation from now on
+                megamorphic = true;
+                setTarget(fallback);
+                return;
+            }
+            linkedCount++;
+
+            MethodHandle target = MethodInvoker.forMethod(method).getDirectHandle();
+            VarArgsPlan plan = VarArgsPlan.forTypes(method, Arrays.copyOfRange(argClasses, 1, argClasses.length));
+            if(!plan.isDirect()){
+                Class<?>[] paramTypes = method.getParameterTypes();
+                target = target.asCollector(paramTypes[paramTypes.length - 1], argClasses.length - paramTypes.length);
+            }
+            target = target.asType(type());
+
+            MethodHandle previous = getTarget();
+            Class<?>[] siteTypes = type().parameterArray();
+            for(int i = siteTypes.length - 1; i >= 0; i--){
+                //A primitive parameter can only ever hold its one class
+                if(siteTypes[i].isPrimitive()){
+                    continue;
+                }
+
+                MethodHandle test = MethodHandles.insertArguments(IS_CLASS, 0, argClasses[i])
+                        .asType(MethodType.methodType(boolean.class, siteTypes[i]));
+                test = MethodHandles.dropArguments(test, 0, Arrays.copyOfRange(siteTypes, 0, i));
+                target = MethodHandles.guardWithTest(test, target, previous);
+            }
+            setTarget(target);
+        }
+
+    }
+
+}
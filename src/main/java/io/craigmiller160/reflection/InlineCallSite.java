@@ -0,0 +1,223 @@
+package io.craigmiller160.reflection;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * A call site for a single method signature, with its own small
+ * cache of the methods it has resolved. It is created by
+ * FindAndInvoke.callSite(), and is meant to be held in a field
+ * by code that calls the same method from the same place over
+ * and over, where the receiver and argument classes are almost
+ * always the same few.
+ *
+ * The cache works like a JIT's inline cache. It starts out empty,
+ * becomes monomorphic after the first invocation, and polymorphic
+ * as more combinations of receiver and argument classes are seen,
+ * up to MAX_ENTRIES of them. While the site is monomorphic or
+ * polymorphic, an invocation costs a few class identity checks.
+ * Once a site sees more than MAX_ENTRIES combinations, it becomes
+ * megamorphic, drops its own cache, and resolves every invocation
+ * through the global resolution cache, exactly like findAndInvokeMethod().
+ *
+ * Invocations with null arguments always go through the global path,
+ * since a null has no class to check. So do invocations involving a
+ * class that could be unloaded, since the site holds its entries
+ * strongly and would otherwise keep that class's ClassLoader alive.
+ * Call sites can be safely shared between threads.
+ */
+public final class InlineCallSite {
+
+    /**
+     * The number of combinations of receiver and argument classes
+     * a call site caches before it becomes megamorphic.
+     */
+    public static final int MAX_ENTRIES = 4;
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final String methodSig;
+    //Replaced, never modified, so it can be read without locking
+    private volatile Entry[] entries = NO_ENTRIES;
+    private volatile boolean megamorphic;
+
+    InlineCallSite(String methodSig){
+        this.methodSig = methodSig;
+    }
+
+    /**
+     * Find and invoke the method on the target. The matching follows
+     * the same rules as FindAndInvoke.findAndInvokeMethod().
+     *
+     * @param target the object to invoke the method on.
+     * @param newParams the params to invoke the method with.
+     * @return the result of the method, or null if it is void.
+     * @throws NoSuchMethodException if no method matches.
+     * @throws IllegalAccessException if the matching method isn't accessible.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     */
+    public Object invoke(Object target, Object...newParams)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException{
+        Class<?> receiverClass = target.getClass();
+        Entry[] current = entries;
+        if(current.length > 0){
+            DispatchListener listener = DispatchMetrics.getListener();
+            long start = listener != null ? System.nanoTime() : 0L;
+            for(Entry entry : current){
+                if(entry.matches(receiverClass, newParams)){
+                    if(listener != null){
+                        listener.onResolution(methodSig, true, true, System.nanoTime() - start);
+                    }
+                    return entry.invoke(target, listener, newParams);
+                }
+            }
+        }
+
+        Resolution resolution = FindAndInvoke.resolve(new Class<?>[]{receiverClass}, new Object[]{target}, methodSig, newParams);
+        if(!resolution.isMatch()){
+            throw new NoSuchMethodException("No matching method found: " + methodSig + " " + Arrays.toString(newParams));
+        }
+
+        Method method = resolution.getMethod();
+        if(!megamorphic){
+            Class<?>[] argClasses = ResolutionKey.classesOf(newParams);
+            if(argClasses != null && isPermanent(receiverClass, argClasses, method)){
+                addEntry(new Entry(receiverClass, argClasses, MethodInvoker.forMethod(method),
+                        VarArgsPlan.forTypes(method, argClasses)));
+            }
+        }
+        return FindAndInvoke.invokeMatch(new ObjectAndMethod(target, method), newParams);
+    }
+
+    private static boolean isPermanent(Class<?> receiverClass, Class<?>[] argClasses, Method method){
+        if(!ResolutionKey.isPermanent(receiverClass) || !ResolutionKey.isPermanent(method.getDeclaringClass())){
+            return false;
+        }
+        for(Class<?> argClass : argClasses){
+            if(!ResolutionKey.isPermanent(argClass)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized void addEntry(Entry entry){
+        if(megamorphic){
+            return;
+        }
+
+        Entry[] current = entries;
+        for(Entry existing : current){
+            //Another thread got here first
+            if(existing.receiverClass == entry.receiverClass && Arrays.equals(existing.argClasses, entry.argClasses)){
+                return;
+            }
+        }
+
+        if(current.length >= MAX_ENTRIES){
+            megamorphic = true;
+            entries = NO_ENTRIES;
+            return;
+        }
+
+        Entry[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = entry;
+        entries = updated;
+    }
+
+    /**
+     * Get the method signature this call site invokes.
+     *
+     * @return the method signature.
+     */
+    public String getMethodSig(){
+        return methodSig;
+    }
+
+    /**
+     * Get the number of combinations of receiver and argument
+     * classes currently in this call site's cache.
+     *
+     * @return the number of cached entries, which is always 0
+     *          once the call site is megamorphic.
+     */
+    public int getEntryCount(){
+        return entries.length;
+    }
+
+    /**
+     * Check if this call site has seen too many combinations
+     * of receiver and argument classes to cache, and now
+     * resolves every invocation through the global cache.
+     *
+     * @return true if the call site is megamorphic.
+     */
+    public boolean isMegamorphic(){
+        return megamorphic;
+    }
+
+    @Override
+    public String toString() {
+        String state = megamorphic ? "megamorphic" : entries.length == 0 ? "uninitialized" :
+                entries.length == 1 ? "monomorphic" : "polymorphic";
+        return "InlineCallSite[" + methodSig + ", " + state + "]";
+    }
+
+    /**
+     * A single combination of receiver and argument classes, and
+     * the invoker for the method they resolved to. Since the classes
+     * are exactly known, the varArgs conversion is planned up front.
+     */
+    private static final class Entry {
+
+        private final Class<?> receiverClass;
+        private final Class<?>[] argClasses;
+        private final MethodInvoker invoker;
+        private final VarArgsPlan plan;
+
+        private Entry(Class<?> receiverClass, Class<?>[] argClasses, MethodInvoker invoker, VarArgsPlan plan){
+            this.receiverClass = receiverClass;
+            this.argClasses = argClasses;
+            this.invoker = invoker;
+            this.plan = plan;
+        }
+
+        private Object invoke(Object target, DispatchListener listener, Object[] args) throws InvocationTargetException{
+            if(plan.isDirect()){
+                return FindAndInvoke.invokeMethod(invoker, target, listener, args);
+            }
+
+            Object[] buffer = MethodUtils.getThreadLocalBuffer(plan.getParamCount());
+            try{
+                long start = listener != null ? System.nanoTime() : 0L;
+                Object[] converted = plan.apply(buffer, args);
+                if(listener != null){
+                    listener.onConversion(invoker.getMethod().getName(), System.nanoTime() - start);
+                }
+                return FindAndInvoke.invokeMethod(invoker, target, listener, converted);
+            }
+            finally{
+                if(buffer != null){
+                    Arrays.fill(buffer, null);
+                }
+            }
+        }
+
+        private boolean matches(Class<?> receiverClass, Object[] args){
+            if(this.receiverClass != receiverClass || argClasses.length != args.length){
+                return false;
+            }
+
+            for(int i = 0; i < args.length; i++){
+                if(args[i] == null || args[i].getClass() != argClasses[i]){
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+package io.craigmiller160.reflection;
+
+import java.util.Arrays;
+
+/**
+ * The outcome of FindAndInvoke.tryFindAndInvokeMethod(). Either
+ * a method matched and was invoked, and the result holds the value
+ * it returned, or nothing matched and the result is a miss.
+ *
+ * A miss costs nothing more than this object. The message describing
+ * why nothing matched, and the exception findAndInvokeMethod() would
+ * have thrown, are only built if getDiagnostics() or toException()
+ * is called.
+ */
+public final class InvocationResult {
+
+    private final boolean matched;
+    private final Object value;
+    private final boolean hasCandidates;
+    private final boolean singleTarget;
+    private final String methodSig;
+    private final Object[] params;
+
+    private InvocationResult(boolean matched, Object value, boolean hasCandidates, boolean singleTarget,
+            String methodSig, Object[] params){
+        this.matched = matched;
+        this.value = value;
+        this.hasCandidates = hasCandidates;
+        this.singleTarget = singleTarget;
+        this.methodSig = methodSig;
+        this.params = params;
+    }
+
+    static InvocationResult matched(Object value){
+        return new InvocationResult(true, value, true, false, null, null);
+    }
+
+    /**
+     * Create a miss.
+     *
+     * @param hasCandidates whether any methods with the name existed at all.
+     * @param singleTarget whether the miss came from the single object
+     *                     overload, which doesn't report missing candidates
+     *                     separately.
+     * @param methodSig the signature of the method that was searched for.
+     * @param params the params the method would have been invoked with.
+     * @return the miss.
+     */
+    static InvocationResult missed(boolean hasCandidates, boolean singleTarget, String methodSig, Object[] params){
+        return new InvocationResult(false, null, hasCandidates, singleTarget, methodSig, params);
+    }
+
+    public boolean isMatched(){
+        return matched;
+    }
+
+    public boolean isMissed(){
+        return !matched;
+    }
+
+    /**
+     * Get the value returned by the invoked method.
+     *
+     * @return the value, or null if the method is void.
+     * @throws IllegalStateException if no method matched.
+     */
+    public Object getValue(){
+        if(!matched){
+            throw new IllegalStateException("No method was invoked: " + getDiagnostics());
+        }
+        return value;
+    }
+
+    /**
+     * Get the value returned by the invoked method, or the
+     * provided value if no method matched.
+     *
+     * @param other the value to return if no method matched.
+     * @return the value.
+     */
+    public Object getValueOrElse(Object other){
+        return matched ? value : other;
+    }
+
+    /**
+     * Get a description of why no method matched. This is
+     * built when it is asked for, not when the miss happened.
+     * It is the same message the matching findAndInvokeMethod()
+     * overload would have thrown.
+     *
+     * @return the description, or null if a method matched.
+     */
+    public String getDiagnostics(){
+        if(matched){
+            return null;
+        }
+
+        if(!hasCandidates && !singleTarget){
+            return "No methods exist matching this signature: " + methodSig;
+        }
+        return "No matching method found: " + methodSig + " " + Arrays.toString(params);
+    }
+
+    /**
+     * Create the exception findAndInvokeMethod() would have
+     * thrown for this miss.
+     *
+     * @return the exception, or null if a method matched.
+     */
+    public NoSuchMethodException toException(){
+        return matched ? null : new NoSuchMethodException(getDiagnostics());
+    }
+
+    @Override
+    public String toString() {
+        return matched ? "InvocationResult[matched: " + value + "]" : "InvocationResult[missed: " + getDiagnostics() + "]";
+    }
+
+}
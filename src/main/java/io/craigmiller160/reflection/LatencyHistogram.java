@@ -0,0 +1,83 @@
+package io.craigmiller160.reflection;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies, in nanoseconds, with a bucket for
+ * each power of two. Recording is lock-free, and percentiles are
+ * approximate, reported as the upper bound of the bucket they
+ * fall in.
+ */
+final class LatencyHistogram {
+
+    private static final int BUCKET_COUNT = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    LatencyHistogram(){
+        for(int i = 0; i < BUCKET_COUNT; i++){
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos){
+        long value = Math.max(0, nanos);
+        //Bucket i holds values below 2^i, so zero goes in bucket 0
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(value)].increment();
+        count.increment();
+        totalNanos.add(value);
+    }
+
+    long getCount(){
+        return count.sum();
+    }
+
+    long getTotalNanos(){
+        return totalNanos.sum();
+    }
+
+    double getMeanNanos(){
+        long c = count.sum();
+        return c == 0 ? 0 : (double) totalNanos.sum() / c;
+    }
+
+    /**
+     * Get the approximate latency at the percentile.
+     *
+     * @param percentile the percentile, between 0 and 100.
+     * @return the upper bound of the bucket the percentile falls in,
+     *          or 0 if nothing has been recorded.
+     */
+    long getPercentileNanos(double percentile){
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for(int i = 0; i < BUCKET_COUNT; i++){
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if(total == 0){
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for(int i = 0; i < BUCKET_COUNT; i++){
+            seen += counts[i];
+            if(seen >= Math.max(1, threshold)){
+                return i >= 63 ? Long.MAX_VALUE : (1L << i) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    void reset(){
+        for(LongAdder bucket : buckets){
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+    }
+
+}
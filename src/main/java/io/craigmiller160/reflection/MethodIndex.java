@@ -0,0 +1,124 @@
+package io.craigmiller160.reflection;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index of the public methods of a single Class,
+ * grouped by method name, with each group further indexed
+ * by parameter count in an OverloadIndex. Each method can also be
+ * looked up directly by its full signature. Building this index requires
+ * a single call to Class.getMethods(), so it is built
+ * once per Class and then shared by every lookup against
+ * that Class.
+ *
+ * The indexes are held in a ClassValue, so they are
+ * released along with the Class they describe and never
+ * pin a ClassLoader in memory.
+ */
+final class MethodIndex {
+
+    private static final ClassValue<MethodIndex> INDEXES = new ClassValue<MethodIndex>() {
+        @Override
+        protected MethodIndex computeValue(Class<?> type) {
+            return new MethodIndex(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final Map<String,OverloadIndex> overloadsByName;
+    private final Map<String,Method> methodsBySignature;
+
+    private MethodIndex(Class<?> type){
+        this.type = type;
+
+        //Each group preserves the order getMethods() returned them in
+        Map<String,List<Method>> grouped = new HashMap<>();
+        Map<String,Method> bySignature = new HashMap<>();
+        for(Method m : type.getMethods()){
+            //Bridge methods share a signature with the method they bridge to, which is preferred
+            String key = MethodSignature.keyOf(m);
+            Method existing = bySignature.get(key);
+            if(existing == null || (existing.isBridge() && !m.isBridge())){
+                bySignature.put(key, m);
+            }
+
+            List<Method> group = grouped.get(m.getName());
+            if(group == null){
+                group = new ArrayList<>();
+                grouped.put(m.getName(), group);
+            }
+            group.add(m);
+        }
+
+        Map<String,OverloadIndex> index = new HashMap<>();
+        for(Map.Entry<String,List<Method>> entry : grouped.entrySet()){
+            index.put(entry.getKey(), new OverloadIndex(entry.getValue().toArray(new Method[entry.getValue().size()])));
+        }
+        this.overloadsByName = Collections.unmodifiableMap(index);
+        this.methodsBySignature = Collections.unmodifiableMap(bySignature);
+    }
+
+    /**
+     * Get the index for the provided Class, building it
+     * if this is the first time the Class has been seen.
+     *
+     * @param type the Class to get the index for.
+     * @return the index of the Class's public methods.
+     */
+    static MethodIndex forClass(Class<?> type){
+        return INDEXES.get(type);
+    }
+
+    /**
+     * Get all public methods with the provided name. The returned
+     * array is shared between all callers and must NOT be modified.
+     *
+     * @param methodName the name of the methods to get.
+     * @return the methods with that name, in the order Class.getMethods()
+     *          returned them, or an empty array if there are none.
+     */
+    Method[] getMethods(String methodName){
+        return getOverloads(methodName).getMethods();
+    }
+
+    /**
+     * Get the index of all the overloads with the provided name.
+     *
+     * @param methodName the name of the methods to get.
+     * @return the overloads, which will be empty if there are none.
+     */
+    OverloadIndex getOverloads(String methodName){
+        OverloadIndex overloads = overloadsByName.get(methodName);
+        return overloads != null ? overloads : OverloadIndex.EMPTY;
+    }
+
+    /**
+     * Get the public method with the provided full signature.
+     *
+     * @param signature the parsed signature of the method.
+     * @return the method, or null if there is none.
+     */
+    Method getMethod(MethodSignature signature){
+        return methodsBySignature.get(signature.getKey());
+    }
+
+    /**
+     * Get the names of all the public methods in the index.
+     *
+     * @return the method names.
+     */
+    Set<String> getMethodNames(){
+        return overloadsByName.keySet();
+    }
+
+    Class<?> getType(){
+        return type;
+    }
+
+}
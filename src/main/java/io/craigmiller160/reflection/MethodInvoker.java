@@ -0,0 +1,213 @@
+package io.craigmiller160.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Invokes a Method through a MethodHandle rather than
+ * Method.invoke(). The handle is adapted once, when the
+ * invoker is created, to the generic (Object, Object[])Object
+ * shape, so each invocation avoids the reflective access
+ * checks that Method.invoke() performs.
+ *
+ * Optionally, once a method has been invoked compileThreshold
+ * times, the invoker switches to a CompiledAccessor generated
+ * for the method, which is closer to the speed of a direct call.
+ * Methods that can't be compiled stay on the MethodHandle path.
+ * Compilation is disabled by default.
+ *
+ * Invokers are cached per Method, in a ClassValue keyed by
+ * the class that declares the Method, so they are released
+ * along with that class.
+ */
+final class MethodInvoker {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    /**
+     * The system property that can be used to set the initial
+     * compile threshold.
+     */
+    static final String COMPILE_THRESHOLD_PROPERTY = "io.craigmiller160.reflection.compileThreshold";
+
+    private static volatile int compileThreshold = Integer.getInteger(COMPILE_THRESHOLD_PROPERTY, -1);
+
+    private static final ClassValue<ConcurrentMap<Method,MethodInvoker>> INVOKERS = new ClassValue<ConcurrentMap<Method,MethodInvoker>>() {
+        @Override
+        protected ConcurrentMap<Method,MethodInvoker> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Method method;
+    private final MethodHandle directHandle;
+    private final MethodHandle handle;
+    private volatile CompiledAccessor compiled;
+    private volatile boolean compileAttempted;
+    //Deliberately not atomic, an approximate count is enough to find hot methods
+    private int invocationCount;
+
+    private MethodInvoker(Method method, MethodHandle directHandle){
+        this.method = method;
+        this.directHandle = directHandle;
+        int paramCount = directHandle.type().parameterCount() - 1;
+        this.handle = directHandle.asType(MethodType.genericMethodType(paramCount + 1))
+                .asSpreader(Object[].class, paramCount)
+                .asType(INVOKER_TYPE);
+    }
+
+    /**
+     * Get the invoker for the provided method, creating
+     * it if this is the first time the method has been
+     * invoked.
+     *
+     * @param method the method to get the invoker for.
+     * @return the invoker for the method.
+     * @throws IllegalAccessException if the method isn't accessible
+     *          to this library. This is the same condition where
+     *          Method.invoke() would throw the exception.
+     */
+    static MethodInvoker forMethod(Method method) throws IllegalAccessException{
+        ConcurrentMap<Method,MethodInvoker> invokers = INVOKERS.get(method.getDeclaringClass());
+        MethodInvoker invoker = invokers.get(method);
+        if(invoker == null){
+            invoker = new MethodInvoker(method, createDirectHandle(method));
+            MethodInvoker existing = invokers.putIfAbsent(method, invoker);
+            if(existing != null){
+                invoker = existing;
+            }
+        }
+        return invoker;
+    }
+
+    /**
+     * Create the handle for the method, with its exact parameter and
+     * return types. The first parameter is always the target, even
+     * for static methods, where the target is ignored the same way
+     * Method.invoke() ignores it.
+     */
+    private static MethodHandle createDirectHandle(Method method) throws IllegalAccessException{
+        //Fixed arity, since the varArgs array is always built before invoking
+        MethodHandle handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+        if(Modifier.isStatic(method.getModifiers())){
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return handle;
+    }
+
+    /**
+     * Set the number of invocations after which a method is
+     * compiled. A negative threshold disables compilation.
+     *
+     * @param threshold the new threshold.
+     */
+    static void setCompileThreshold(int threshold){
+        compileThreshold = threshold;
+    }
+
+    static int getCompileThreshold(){
+        return compileThreshold;
+    }
+
+    /**
+     * Check if this invoker has switched to a compiled accessor.
+     *
+     * @return true if the method has been compiled.
+     */
+    boolean isCompiled(){
+        return compiled != null;
+    }
+
+    Method getMethod(){
+        return method;
+    }
+
+    /**
+     * Get the handle for the method with its exact types, not adapted
+     * to the generic shape, so callers can adapt it to shapes of their
+     * own. The first parameter is the target.
+     *
+     * @return the direct handle.
+     */
+    MethodHandle getDirectHandle(){
+        return directHandle;
+    }
+
+    /**
+     * Get the exception to throw for a Throwable thrown by an invoked
+     * method. RuntimeExceptions and Errors are thrown directly from here,
+     * and anything else is wrapped in an InvocationTargetException for
+     * the caller to throw, the same as Method.invoke().
+     *
+     * @param t the Throwable thrown by the method.
+     * @return the exception for the caller to throw.
+     */
+    static InvocationTargetException unwrap(Throwable t){
+        if(t instanceof RuntimeException){
+            throw (RuntimeException) t;
+        }
+        else if(t instanceof Error){
+            throw (Error) t;
+        }
+        return new InvocationTargetException(t);
+    }
+
+    /**
+     * Invoke the method. Any varArgs conversion must
+     * already have been done on the params. If the method
+     * throws a RuntimeException or an Error, it is thrown
+     * directly. Any other exception is wrapped in an
+     * InvocationTargetException, just like Method.invoke().
+     *
+     * @param target the object to invoke the method on.
+     * @param params the params to invoke the method with.
+     * @return the result of the method, or null if it is void.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     */
+    Object invoke(Object target, Object...params) throws InvocationTargetException{
+        CompiledAccessor accessor = compiled;
+        if(accessor == null && !compileAttempted){
+            accessor = countInvocation();
+        }
+
+        try{
+            //Widened primitive args, like an Integer for a long, can only go through the handle
+            if(accessor != null && accessor.accepts(params)){
+                return accessor.invoke(target, params);
+            }
+            return (Object) handle.invokeExact(target, params);
+        }
+        catch(Throwable t){
+            throw unwrap(t);
+        }
+    }
+
+    /**
+     * Count an invocation, and compile the method if that
+     * brings it to the compile threshold.
+     *
+     * @return the compiled accessor, or null if the method
+     *          isn't compiled.
+     */
+    private CompiledAccessor countInvocation(){
+        int threshold = compileThreshold;
+        if(threshold < 0 || ++invocationCount < threshold){
+            return null;
+        }
+
+        synchronized (this){
+            if(!compileAttempted){
+                compiled = CompiledAccessor.create(method);
+                compileAttempted = true;
+            }
+        }
+        return compiled;
+    }
+
+}
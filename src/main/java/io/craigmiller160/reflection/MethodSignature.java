@@ -0,0 +1,127 @@
+package io.craigmiller160.reflection;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A full method signature, such as "process(java.lang.String,int...)",
+ * parsed into its canonical form. Parameter types are written the
+ * way Class.getTypeName() writes them: fully qualified, with '$'
+ * for nested classes, and "[]" for arrays. A trailing "..." is
+ * the same as "[]". Whitespace is ignored.
+ *
+ * Parsed signatures are cached, so each distinct string is only
+ * parsed once.
+ */
+final class MethodSignature {
+
+    private static final int MAX_CACHED = 4096;
+    private static final ConcurrentMap<String,MethodSignature> PARSED = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final String key;
+
+    private MethodSignature(String name, String key){
+        this.name = name;
+        this.key = key;
+    }
+
+    /**
+     * Test if the methodSig is a full signature, rather
+     * than just a method name.
+     *
+     * @param methodSig the methodSig to test.
+     * @return true if it is a full signature.
+     */
+    static boolean isFullSignature(String methodSig){
+        return methodSig.indexOf('(') >= 0;
+    }
+
+    /**
+     * Get the parsed form of the full signature.
+     *
+     * @param methodSig the full signature.
+     * @return the parsed signature.
+     * @throws IllegalArgumentException if the signature is malformed.
+     */
+    static MethodSignature parse(String methodSig){
+        MethodSignature signature = PARSED.get(methodSig);
+        if(signature == null){
+            signature = doParse(methodSig);
+            //Signatures normally come from constants, the cap only guards against ones built at runtime
+            if(PARSED.size() < MAX_CACHED){
+                PARSED.putIfAbsent(methodSig, signature);
+            }
+        }
+        return signature;
+    }
+
+    private static MethodSignature doParse(String methodSig){
+        String trimmed = methodSig.trim();
+        int open = trimmed.indexOf('(');
+        if(open <= 0 || !trimmed.endsWith(")") || trimmed.indexOf('(', open + 1) >= 0 || trimmed.indexOf(')') != trimmed.length() - 1){
+            throw new IllegalArgumentException("Malformed method signature: " + methodSig);
+        }
+
+        String name = trimmed.substring(0, open).trim();
+        String params = trimmed.substring(open + 1, trimmed.length() - 1).trim();
+        StringBuilder key = new StringBuilder(name).append('(');
+        if(!params.isEmpty()){
+            String[] types = params.split(",", -1);
+            for(int i = 0; i < types.length; i++){
+                String type = types[i].replaceAll("\\s", "");
+                if(type.endsWith("...")){
+                    if(i != types.length - 1){
+                        throw new IllegalArgumentException("Only the last parameter can be varArgs: " + methodSig);
+                    }
+                    type = type.substring(0, type.length() - 3) + "[]";
+                }
+                if(type.isEmpty() || type.startsWith("[")){
+                    throw new IllegalArgumentException("Malformed method signature: " + methodSig);
+                }
+
+                if(i > 0){
+                    key.append(',');
+                }
+                key.append(type);
+            }
+        }
+        key.append(')');
+
+        return new MethodSignature(name, key.toString());
+    }
+
+    /**
+     * Create the canonical key for a method, which is the same
+     * key a parsed signature for that method has.
+     *
+     * @param method the method.
+     * @return the canonical key.
+     */
+    static String keyOf(Method method){
+        StringBuilder key = new StringBuilder(method.getName()).append('(');
+        Class<?>[] paramTypes = method.getParameterTypes();
+        for(int i = 0; i < paramTypes.length; i++){
+            if(i > 0){
+                key.append(',');
+            }
+            key.append(paramTypes[i].getTypeName());
+        }
+        return key.append(')').toString();
+    }
+
+    String getName(){
+        return name;
+    }
+
+    String getKey(){
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+
+}
@@ -1,58 +1,119 @@
 package io.craigmiller160.reflection;
 
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
-import java.util.Arrays;
 
 /**
  * Created by Craig on 2/14/2016.
  */
 public class MethodUtils {
 
+    /**
+     * The largest parameter count that the per-thread
+     * conversion buffers are kept for.
+     */
+    private static final int MAX_BUFFER_LENGTH = 8;
+
+    private static final ThreadLocal<Object[][]> BUFFERS = new ThreadLocal<Object[][]>(){
+        @Override
+        protected Object[][] initialValue() {
+            return new Object[MAX_BUFFER_LENGTH + 1][];
+        }
+    };
+
     //TODO document how this method converts without validation, and isValidInvocation() should be used first
     public static Object[] convertParamsForVarArgsMethod(Method method, Object...newParams){
+        return convertParamsForVarArgsMethod(method, null, newParams);
+    }
+
+    /**
+     * Convert the params for a varArgs method, the same as
+     * convertParamsForVarArgsMethod(Method, Object...), but
+     * use the provided buffer for the converted params instead
+     * of allocating a new array. The buffer is only used if
+     * its length matches the number of parameters the method has,
+     * otherwise a new array is allocated as usual. The varArgs
+     * array itself is always a new array, because the invoked
+     * method is free to keep a reference to it.
+     *
+     * The buffer can be reused once the invocation it was filled
+     * for has started, and it should be cleared afterwards so it
+     * doesn't hold on to the params.
+     *
+     * @param method the method to convert the params for.
+     * @param buffer the array to put the converted params in, may be null.
+     * @param newParams the params to convert.
+     * @return the converted params. This will be the buffer if it
+     *          was used, or the original params if no conversion
+     *          was needed.
+     */
+    public static Object[] convertParamsForVarArgsMethod(Method method, Object[] buffer, Object...newParams){
         if(!method.isVarArgs()){
             return newParams;
         }
+        return convertParamsForVarArgs(method.getParameterTypes(), buffer, newParams);
+    }
 
-        int methodParamCount = method.getParameterTypes().length;
+    /**
+     * Get this thread's conversion buffer for the provided parameter
+     * count. The same array is returned on every call from the same
+     * thread, so it must be cleared after each use.
+     *
+     * @param length the parameter count of the method being invoked.
+     * @return the buffer, or null if the parameter count is too large
+     *          to keep a buffer for.
+     */
+    static Object[] getThreadLocalBuffer(int length){
+        if(length > MAX_BUFFER_LENGTH){
+            return null;
+        }
 
-        if(newParams.length > 0){
-            if(newParams.length > methodParamCount){
-                int varArgsLength = newParams.length - methodParamCount + 1;
-                newParams = convertParams(method, varArgsLength, newParams);
-            }
-            else if(newParams.length == methodParamCount){
-                int varArgsIndex = methodParamCount - 1;
-                if(method.getParameterTypes()[varArgsIndex].equals(newParams[varArgsIndex].getClass()) ||
-                        method.getParameterTypes()[varArgsIndex].isAssignableFrom(newParams[varArgsIndex].getClass())){
-                    //This is if an array is already provided
-                    return newParams;
-                }
-                newParams = convertParams(method, 1, newParams);
-            }
-            else if(newParams.length == methodParamCount - 1){
-                newParams = convertParams(method, 0, newParams);
+        Object[][] buffers = BUFFERS.get();
+        Object[] buffer = buffers[length];
+        if(buffer == null){
+            buffer = new Object[length];
+            buffers[length] = buffer;
+        }
+        return buffer;
+    }
+
+    static Object[] convertParamsForVarArgs(Class<?>[] paramTypes, Object[] buffer, Object...newParams){
+        int methodParamCount = paramTypes.length;
+        int varArgsIndex = methodParamCount - 1;
+
+        if(newParams.length > methodParamCount){
+            int varArgsLength = newParams.length - methodParamCount + 1;
+            newParams = convertParams(paramTypes, buffer, varArgsLength, newParams);
+        }
+        else if(newParams.length == methodParamCount){
+            if(newParams[varArgsIndex] != null && Assignability.isAssignable(paramTypes[varArgsIndex], newParams[varArgsIndex].getClass())){
+                //This is if an array is already provided
+                return newParams;
             }
+            newParams = convertParams(paramTypes, buffer, 1, newParams);
         }
-        else{
-            //If no new params are provided, an empty array needs to be returned.
-            return (Object[]) Array.newInstance(method.getParameterTypes()[0], 0);
+        else if(newParams.length == methodParamCount - 1){
+            //This includes when no params are provided, and the only method param is the varArgs
+            newParams = convertParams(paramTypes, buffer, 0, newParams);
         }
         return newParams;
     }
 
-    private static Object[] convertParams(Method method, int varArgsSize, Object...newParams){
-        Class<?>[] paramTypes = method.getParameterTypes();
-        Object[] resultArr = new Object[paramTypes.length];
+    private static Object[] convertParams(Class<?>[] paramTypes, Object[] buffer, int varArgsSize, Object...newParams){
+        Object[] resultArr = buffer != null && buffer.length == paramTypes.length ? buffer : new Object[paramTypes.length];
         int varArgsIndex = paramTypes.length - 1;
-        for(int i = 0; i < paramTypes.length - 1; i++){
-            resultArr[i] = newParams[i];
-        }
+        System.arraycopy(newParams, 0, resultArr, 0, varArgsIndex);
 
-        Object[] varArgs = (Object[]) Array.newInstance(paramTypes[varArgsIndex].getComponentType(), varArgsSize);
-        for(int i = 0; i < varArgsSize; i++){
-            varArgs[i] = newParams[varArgsIndex + i];
+        Class<?> componentType = paramTypes[varArgsIndex].getComponentType();
+        Object varArgs = Array.newInstance(componentType, varArgsSize);
+        if(componentType.isPrimitive()){
+            for(int i = 0; i < varArgsSize; i++){
+                Array.set(varArgs, i, newParams[varArgsIndex + i]);
+            }
+        }
+        else{
+            System.arraycopy(newParams, varArgsIndex, varArgs, 0, varArgsSize);
         }
         resultArr[varArgsIndex] = varArgs;
 
@@ -60,119 +121,156 @@ public class MethodUtils {
     }
 
     public static boolean isValidInvocation(Method method, Object...newParams){
-        int methodParamCount = method.getParameterTypes().length;
+        return isValidInvocation(method.getParameterTypes(), method.isVarArgs(), false, newParams);
+    }
+
+    /**
+     * Test if the method can be invoked with arguments of the provided
+     * types. This follows exactly the same rules as isValidInvocation(),
+     * but works with the types the arguments will have rather than the
+     * arguments themselves, so it can be used to resolve a method before
+     * any arguments exist.
+     *
+     * @param method the method to test.
+     * @param argTypes the types of the arguments it would be invoked with.
+     * @return true if the method can be invoked with arguments of those types.
+     */
+    public static boolean isValidInvocationForTypes(Method method, Class<?>...argTypes){
+        return isValidInvocation(method.getParameterTypes(), method.isVarArgs(), true, (Object[]) argTypes);
+    }
+
+    /**
+     * Get the type of the argument at the provided index. If the
+     * values are types already, it is simply returned, otherwise
+     * it is the runtime class of the value. A primitive type is
+     * returned as its wrapper, since that is the runtime class an
+     * argument of that type has once it is boxed, so it widens the
+     * same way a boxed argument does.
+     */
+    private static Class<?> argType(boolean valuesAreTypes, Object[] values, int index){
+        if(!valuesAreTypes){
+            return values[index].getClass();
+        }
+
+        Class<?> type = (Class<?>) values[index];
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    /**
+     * Test if a method with the provided parameter types is a valid
+     * invocation with the provided values. The parameter types are
+     * taken as an argument, rather than from the Method, so callers
+     * that have already cached them don't pay for the copy that
+     * Method.getParameterTypes() makes. The parameter types array
+     * is never modified.
+     *
+     * @param paramTypes the parameter types of the method.
+     * @param varArgs true if the method is varArgs.
+     * @param valuesAreTypes true if the values are the types of the arguments,
+     *                       rather than the arguments themselves.
+     * @param newParams the arguments, or the types of the arguments.
+     * @return true if the invocation is valid.
+     */
+    static boolean isValidInvocation(Class<?>[] paramTypes, boolean varArgs, boolean valuesAreTypes, Object...newParams){
+        int methodParamCount = paramTypes.length;
 
         boolean result = false;
         if(newParams.length > 0){
             if(newParams.length > methodParamCount){
                 //If more params are provided than are contained in the method, the method MUST be varArgs.
-                if(method.isVarArgs()){
-                    result = validateParamsWithVarArgs(method, newParams);
+                if(varArgs){
+                    result = validateParamsWithVarArgs(paramTypes, valuesAreTypes, newParams);
                 }
             }
             else if(newParams.length == methodParamCount){
                 //If their lengths are equal, may or may not be varargs.
-                if(method.isVarArgs()){
-                    result = validateParamsWithVarArgs(method, newParams);
+                if(varArgs){
+                    result = validateParamsWithVarArgs(paramTypes, valuesAreTypes, newParams);
                 }
                 else{
-                    result = validateParamsNoVarArgs(method, newParams);
+                    result = validateParamsNoVarArgs(paramTypes, valuesAreTypes, newParams);
                 }
             }
             else if(newParams.length == methodParamCount - 1){
                 //If provided params are one less than expected, the method MUST be varArgs
-                if(method.isVarArgs()){
-                    result = validateParamsWithEmptyVarArgs(method, newParams);
+                if(varArgs){
+                    result = validateParamsWithEmptyVarArgs(paramTypes, valuesAreTypes, newParams);
                 }
             }
             //If none of the above conditions are met, than the required number of params was not submitted and the method is not a match
         }
         else{
             //If no newParams are provided, the method must either have no params, or 1 param that is a varArg.
-            result = methodParamCount == 0 || (methodParamCount == 1 && method.isVarArgs());
+            result = methodParamCount == 0 || (methodParamCount == 1 && varArgs);
         }
 
         return result;
     }
 
-    private static boolean validateParamsNoVarArgs(Method method, Object...newParams){
-        int methodParamCount = method.getParameterTypes().length;
+    private static boolean validateParamsNoVarArgs(Class<?>[] paramTypes, boolean valuesAreTypes, Object...newParams){
+        return validateFixedParams(paramTypes, paramTypes.length, valuesAreTypes, newParams);
+    }
 
-        boolean result = true;
-        for(int i = 0; i < methodParamCount; i++){
-            if(!method.getParameterTypes()[i].isAssignableFrom(newParams[i].getClass())) {
-                //If any parameter type is not assignable, the loop should end and method should return false, this is not a match
-                result = false;
-                break;
-            }
+    private static boolean validateParamsWithVarArgs(Class<?>[] paramTypes, boolean valuesAreTypes, Object...newParams){
+        int varArgsIndex = paramTypes.length - 1;
+
+        //All but the last parameter are validated normally, the last is the varargs parameter
+        if(!validateFixedParams(paramTypes, varArgsIndex, valuesAreTypes, newParams)){
+            return false;
         }
 
-        return result;
+        //If the final param, and the newParams provided for that position, won't work as valid varArgs, this is not a match
+        return isValidVarArgs(paramTypes[varArgsIndex], valuesAreTypes, newParams, varArgsIndex, newParams.length - varArgsIndex);
     }
 
-    private static boolean validateParamsWithVarArgs(Method method, Object...newParams){
-        int methodParamCount = method.getParameterTypes().length;
-
-        boolean result = true;
-        for(int i = 0; i < methodParamCount; i++){
-            if(i < methodParamCount - 1){
-                //If it's not the last parameter, then it's not the varargs parameter yet
-                if(!method.getParameterTypes()[i].isAssignableFrom(newParams[i].getClass())) {
-                    //If any parameter type is not assignable, the loop should end and method should return false, this is not a match
-                    result = false;
-                    break;
-                }
-            }
-            else{
-                if(!isValidVarArgs(method.getParameterTypes()[i], Arrays.copyOfRange(newParams, i, newParams.length))){
-                    //If the final param, and the newParams provided for that position, won't work as valid varArgs, this is not a mach
-                    result = false;
-                    break;
-                }
-            }
-        }
-        return result;
+    private static boolean validateParamsWithEmptyVarArgs(Class<?>[] paramTypes, boolean valuesAreTypes, Object...newParams){
+        //Only validate all but the last argument
+        return validateFixedParams(paramTypes, paramTypes.length - 1, valuesAreTypes, newParams);
     }
 
-    private static boolean validateParamsWithEmptyVarArgs(Method method, Object...newParams){
-        int methodParamCount = method.getParameterTypes().length;
-
-        boolean result = true;
-        //Only loop through all but the last argument to validate
-        for(int i = 0; i < methodParamCount - 1; i++){
-            if(!method.getParameterTypes()[i].isAssignableFrom(newParams[i].getClass())) {
-                //If any parameter type is not assignable, the loop should end and method should return false, this is not a match
-                result = false;
-                break;
+    private static boolean validateFixedParams(Class<?>[] paramTypes, int count, boolean valuesAreTypes, Object...newParams){
+        for(int i = 0; i < count; i++){
+            if(!Assignability.isAssignable(paramTypes[i], argType(valuesAreTypes, newParams, i))) {
+                //If any parameter type is not assignable, this is not a match
+                return false;
             }
         }
-        return result;
+        return true;
     }
 
-    //TODO document how this is not meant for empty varArgs
-    private static boolean isValidVarArgs(Class<?> varArgType, Object...varArgParams){
-        boolean result = true;
+    /**
+     * Test if the range of values starting at the offset is valid for
+     * the varArgs parameter. The range is checked in place, so no copy
+     * of the values is made. This is not meant for empty varArgs,
+     * the length must be at least 1.
+     *
+     * @param varArgType the array type of the varArgs parameter.
+     * @param valuesAreTypes true if the values are types rather than arguments.
+     * @param values all the values provided for the invocation.
+     * @param offset the index of the first value for the varArgs parameter.
+     * @param length the number of values for the varArgs parameter.
+     * @return true if the values are valid for the varArgs parameter.
+     */
+    private static boolean isValidVarArgs(Class<?> varArgType, boolean valuesAreTypes, Object[] values, int offset, int length){
         //If there is a single varArgParam, and it's an array already, simply compare their types and return
-        if(varArgParams.length == 1 && varArgParams[0].getClass().isArray()){
-            return varArgType.equals(varArgParams[0].getClass()) || varArgType.isAssignableFrom(varArgParams[0].getClass());
+        if(length == 1 && argType(valuesAreTypes, values, offset).isArray()){
+            return Assignability.isAssignable(varArgType, argType(valuesAreTypes, values, offset));
         }
 
         //Get the type of component the varArg array expects
         Class<?> arrayComponentType = varArgType.getComponentType();
-        if(arrayComponentType != null){
-            for(Object o : varArgParams){
-                if(!arrayComponentType.isAssignableFrom(o.getClass())){
-                    //If the type of array component cannot accept the varArgParam type, end the loop and this is not a match
-                    result = false;
-                    break;
-                }
-            }
-        }
-        else{
+        if(arrayComponentType == null){
             //If the arrayComponetType is null, then this method was improperly called. Meaning something is broken
             throw new RuntimeException("isValidVarArgs(...) called on a non-varArg type, check the invoking code for errors");
         }
-        return result;
+
+        for(int i = offset; i < offset + length; i++){
+            if(!Assignability.isAssignable(arrayComponentType, argType(valuesAreTypes, values, i))){
+                //If the type of array component cannot accept the varArgParam type, this is not a match
+                return false;
+            }
+        }
+        return true;
     }
 
 }
@@ -20,9 +20,25 @@ public class ObjectAndMethod {
     private final Class<?>[] paramTypes;
 
     public ObjectAndMethod(Object obj, Method m){
+        this(obj, m, m.getParameterTypes());
+    }
+
+    private ObjectAndMethod(Object obj, Method m, Class<?>[] paramTypes){
         this.obj = obj;
         this.m = m;
-        this.paramTypes = m.getParameterTypes();
+        this.paramTypes = paramTypes;
+    }
+
+    /**
+     * Pair the same Method with a different object. The
+     * parameter types are shared with this instance, rather
+     * than copied from the Method again.
+     *
+     * @param obj the object to pair the Method with.
+     * @return the new pairing.
+     */
+    ObjectAndMethod rebind(Object obj){
+        return new ObjectAndMethod(obj, m, paramTypes);
     }
 
     public Object getObject(){
@@ -66,7 +82,8 @@ public class ObjectAndMethod {
 
     @Override
     public String toString(){
-        String className = obj.getClass().getName();
+        //A null object means this is only a template for the method, such as in a PreparedInvoker
+        String className = obj != null ? obj.getClass().getName() : m.getDeclaringClass().getName();
         String methodName = m.getName();
         String[] paramTypeNames = getParamTypeNames();
 
@@ -0,0 +1,160 @@
+package io.craigmiller160.reflection;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An index of all the overloads of a single method name in a
+ * single Class. The overloads are bucketed by the exact number
+ * of parameters they take, with a separate bucket for varArgs
+ * methods, so matching a set of arguments only has to validate
+ * the overloads that could possibly accept that many arguments.
+ *
+ * Each overload is held as an ObjectAndMethod with no object,
+ * which acts as a template: it caches the parameter types, so
+ * they are never copied from the Method again, and it can be
+ * paired with a real object using rebind().
+ *
+ * When more than one overload is valid, the one that comes first
+ * in the order Class.getMethods() returned them is the match,
+ * exactly as it was before the overloads were bucketed.
+ */
+final class OverloadIndex {
+
+    private static final int[] NONE = new int[0];
+
+    static final OverloadIndex EMPTY = new OverloadIndex(new Method[0]);
+
+    private final Method[] methods;
+    private final ObjectAndMethod[] templates;
+    private final int[][] byArity;
+    private final int[] varArgs;
+
+    OverloadIndex(Method[] methods){
+        this.methods = methods;
+        this.templates = new ObjectAndMethod[methods.length];
+
+        int maxArity = -1;
+        for(int i = 0; i < methods.length; i++){
+            templates[i] = new ObjectAndMethod(null, methods[i]);
+            if(!templates[i].isVarArgs()){
+                maxArity = Math.max(maxArity, templates[i].getParamCount());
+            }
+        }
+
+        List<List<Integer>> arityBuckets = new ArrayList<>();
+        for(int i = 0; i <= maxArity; i++){
+            arityBuckets.add(new ArrayList<Integer>());
+        }
+        List<Integer> varArgsBucket = new ArrayList<>();
+        for(int i = 0; i < templates.length; i++){
+            if(templates[i].isVarArgs()){
+                varArgsBucket.add(i);
+            }
+            else{
+                arityBuckets.get(templates[i].getParamCount()).add(i);
+            }
+        }
+
+        this.byArity = new int[arityBuckets.size()][];
+        for(int i = 0; i < byArity.length; i++){
+            byArity[i] = toArray(arityBuckets.get(i));
+        }
+        this.varArgs = toArray(varArgsBucket);
+    }
+
+    private static int[] toArray(List<Integer> values){
+        if(values.isEmpty()){
+            return NONE;
+        }
+
+        int[] result = new int[values.size()];
+        for(int i = 0; i < result.length; i++){
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Find the first overload that is a valid invocation with the
+     * provided values. Only the overloads that take exactly that many
+     * arguments, and the varArgs overloads, are validated.
+     *
+     * @param valuesAreTypes true if the values are the types of the arguments,
+     *                       rather than the arguments themselves.
+     * @param newParams the arguments, or the types of the arguments.
+     * @return the position of the matching overload, or -1 if none match.
+     */
+    int findMatch(boolean valuesAreTypes, Object...newParams){
+        int exactMatch = -1;
+        if(newParams.length < byArity.length){
+            for(int i : byArity[newParams.length]){
+                if(MethodUtils.isValidInvocation(templates[i].getParamTypes(), false, valuesAreTypes, newParams)){
+                    exactMatch = i;
+                    break;
+                }
+            }
+        }
+
+        //Both buckets are in getMethods() order, so only varArgs overloads before the exact match need checking
+        for(int i : varArgs){
+            if(exactMatch >= 0 && i > exactMatch){
+                break;
+            }
+            if(templates[i].getParamCount() - 1 <= newParams.length &&
+                    MethodUtils.isValidInvocation(templates[i].getParamTypes(), true, valuesAreTypes, newParams)){
+                return i;
+            }
+        }
+        return exactMatch;
+    }
+
+    /**
+     * Count the overloads that could possibly accept the provided
+     * number of arguments, which are the ones findMatch() validates.
+     *
+     * @param argCount the number of arguments.
+     * @return the number of plausible overloads.
+     */
+    int countPlausible(int argCount){
+        int count = argCount < byArity.length ? byArity[argCount].length : 0;
+        for(int i : varArgs){
+            if(templates[i].getParamCount() - 1 <= argCount){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the template for the overload at the position.
+     *
+     * @param position the position, in getMethods() order.
+     * @return the template, which has no object.
+     */
+    ObjectAndMethod getTemplate(int position){
+        return templates[position];
+    }
+
+    /**
+     * Get all the overloads. The returned array is shared
+     * and must NOT be modified.
+     *
+     * @return the overloads, in getMethods() order.
+     */
+    Method[] getMethods(){
+        return methods;
+    }
+
+    int size(){
+        return methods.length;
+    }
+
+    @Override
+    public String toString(){
+        return "OverloadIndex" + Arrays.toString(templates);
+    }
+
+}
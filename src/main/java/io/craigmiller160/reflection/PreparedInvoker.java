@@ -0,0 +1,498 @@
+package io.craigmiller160.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A method that has been resolved ahead of time for a
+ * specific target type and specific argument types. It is
+ * created by FindAndInvoke.prepare(), and can then be
+ * invoked any number of times, on any object of the target
+ * type, without doing any resolution. Any varArgs conversion
+ * is done through a plan that was worked out when the invoker
+ * was prepared.
+ *
+ * Methods with common primitive signatures can also be invoked
+ * through the typed invokeInt(), invokeLong(), invokeDouble() and
+ * invokeVoid() methods. These go through a MethodHandle adapted to
+ * exactly that signature, so the arguments and result are never
+ * boxed and nothing is allocated. The typed handle for the method's
+ * own signature is created when the invoker is prepared. A handle for
+ * any other signature, such as invokeLong() on a method returning int,
+ * is created the first time it is used, and a signature the method
+ * can't be adapted to results in an IllegalArgumentException.
+ *
+ * Instances are immutable and can be safely shared
+ * between threads.
+ */
+public final class PreparedInvoker {
+
+    private static final MethodType INT_0 = MethodType.methodType(int.class, Object.class);
+    private static final MethodType INT_1 = MethodType.methodType(int.class, Object.class, int.class);
+    private static final MethodType INT_2 = MethodType.methodType(int.class, Object.class, int.class, int.class);
+    private static final MethodType LONG_0 = MethodType.methodType(long.class, Object.class);
+    private static final MethodType LONG_1 = MethodType.methodType(long.class, Object.class, long.class);
+    private static final MethodType LONG_2 = MethodType.methodType(long.class, Object.class, long.class, long.class);
+    private static final MethodType DOUBLE_0 = MethodType.methodType(double.class, Object.class);
+    private static final MethodType DOUBLE_1 = MethodType.methodType(double.class, Object.class, double.class);
+    private static final MethodType DOUBLE_2 = MethodType.methodType(double.class, Object.class, double.class, double.class);
+    private static final MethodType VOID_0 = MethodType.methodType(void.class, Object.class);
+    private static final MethodType VOID_INT = MethodType.methodType(void.class, Object.class, int.class);
+    private static final MethodType VOID_LONG = MethodType.methodType(void.class, Object.class, long.class);
+    private static final MethodType VOID_DOUBLE = MethodType.methodType(void.class, Object.class, double.class);
+    private static final MethodType VOID_OBJECT = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<?> targetType;
+    private final ObjectAndMethod template;
+    private final MethodInvoker invoker;
+    private final VarArgsPlan plan;
+    private final int argCount;
+    private final boolean isStatic;
+    //The method's own signature, with the target as Object, which is what the typed methods normally match
+    private final MethodHandle exactHandle;
+    private final ConcurrentMap<MethodType,MethodHandle> typedHandles = new ConcurrentHashMap<>();
+
+    PreparedInvoker(Class<?> targetType, Method method, Class<?>...argTypes) throws IllegalAccessException{
+        this.targetType = targetType;
+        this.template = new ObjectAndMethod(null, method);
+        this.invoker = MethodInvoker.forMethod(method);
+        this.plan = VarArgsPlan.forTypes(method, argTypes);
+        this.argCount = argTypes.length;
+        this.isStatic = Modifier.isStatic(method.getModifiers());
+        MethodHandle directHandle = invoker.getDirectHandle();
+        this.exactHandle = directHandle.asType(directHandle.type().changeParameterType(0, Object.class));
+    }
+
+    /**
+     * Invoke the prepared method. The arguments must match the
+     * number and types of the arguments the invoker was prepared
+     * with.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @param args the arguments to invoke the method with.
+     * @return the result of the method, or null if it is void.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the wrong number of arguments is provided.
+     */
+    public Object invoke(Object target, Object...args) throws InvocationTargetException{
+        checkTarget(target);
+        if(args.length != argCount){
+            throw new IllegalArgumentException("Expected " + argCount + " arguments but received " + args.length);
+        }
+
+        if(plan.isDirect()){
+            return invoker.invoke(target, args);
+        }
+
+        Object[] buffer = MethodUtils.getThreadLocalBuffer(plan.getParamCount());
+        try{
+            return invoker.invoke(target, plan.apply(buffer, args));
+        }
+        finally{
+            if(buffer != null){
+                Arrays.fill(buffer, null);
+            }
+        }
+    }
+
+    /**
+     * Invoke the prepared method as one returning an int,
+     * without boxing the arguments or the result.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @return the result of the method.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the method can't be invoked with this signature.
+     */
+    public int invokeInt(Object target) throws InvocationTargetException{
+        checkTarget(target);
+        try{
+            return (int) typedHandle(INT_0).invokeExact(target);
+        }
+        catch(Throwable t){
+            throw MethodInvoker.unwrap(t);
+        }
+    }
+
+    /**
+     * Invoke the prepared method as one returning an int,
+     * without boxing the arguments or the result.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @param a the argument.
+     * @return the result of the method.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the method can't be invoked with this signature.
+     */
+    public int invokeInt(Object target, int a) throws InvocationTargetException{
+        checkTarget(target);
+        try{
+            return (int) typedHandle(INT_1).invokeExact(target, a);
+        }
+        catch(Throwable t){
+            throw MethodInvoker.unwrap(t);
+        }
+    }
+
+    /**
+     * Invoke the prepared method as one returning an int,
+     * without boxing the arguments or the result.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @param a the first argument.
+     * @param b the second argument.
+     * @return the result of the method.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the method can't be invoked with this signature.
+     */
+    public int invokeInt(Object target, int a, int b) throws InvocationTargetException{
+        checkTarget(target);
+        try{
+            return (int) typedHandle(INT_2).invokeExact(target, a, b);
+        }
+        catch(Throwable t){
+            throw MethodInvoker.unwrap(t);
+        }
+    }
+
+    /**
+     * Invoke the prepared method as one returning a long,
+     * without boxing the arguments or the result.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @return the result of the method.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the method can't be invoked with this signature.
+     */
+    public long invokeLong(Object target) throws InvocationTargetException{
+        checkTarget(target);
+        try{
+            return (long) typedHandle(LONG_0).invokeExact(target);
+        }
+        catch(Throwable t){
+            throw MethodInvoker.unwrap(t);
+        }
+    }
+
+    /**
+     * Invoke the prepared method as one returning a long,
+     * without boxing the arguments or the result.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @param a the argument.
+     * @return the result of the method.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the method can't be invoked with this signature.
+     */
+    public long invokeLong(Object target, long a) throws InvocationTargetException{
+        checkTarget(target);
+        try{
+            return (long) typedHandle(LONG_1).invokeExact(target, a);
+        }
+        catch(Throwable t){
+            throw MethodInvoker.unwrap(t);
+        }
+    }
+
+    /**
+     * Invoke the prepared method as one returning a long,
+     * without boxing the arguments or the result.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @param a the first argument.
+     * @param b the second argument.
+     * @return the result of the method.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the method can't be invoked with this signature.
+     */
+    public long invokeLong(Object target, long a, long b) throws InvocationTargetException{
+        checkTarget(target);
+        try{
+            return (long) typedHandle(LONG_2).invokeExact(target, a, b);
+        }
+        catch(Throwable t){
+            throw MethodInvoker.unwrap(t);
+        }
+    }
+
+    /**
+     * Invoke the prepared method as one returning a double,
+     * without boxing the arguments or the result.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @return the result of the method.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the method can't be invoked with this signature.
+     */
+    public double invokeDouble(Object target) throws InvocationTargetException{
+        checkTarget(target);
+        try{
+            return (double) typedHandle(DOUBLE_0).invokeExact(target);
+        }
+        catch(Throwable t){
+            throw MethodInvoker.unwrap(t);
+        }
+    }
+
+    /**
+     * Invoke the prepared method as one returning a double,
+     * without boxing the arguments or the result.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @param a the argument.
+     * @return the result of the method.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the method can't be invoked with this signature.
+     */
+    public double invokeDouble(Object target, double a) throws InvocationTargetException{
+        checkTarget(target);
+        try{
+            return (double) typedHandle(DOUBLE_1).invokeExact(target, a);
+        }
+        catch(Throwable t){
+            throw MethodInvoker.unwrap(t);
+        }
+    }
+
+    /**
+     * Invoke the prepared method as one returning a double,
+     * without boxing the arguments or the result.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @param a the first argument.
+     * @param b the second argument.
+     * @return the result of the method.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the method can't be invoked with this signature.
+     */
+    public double invokeDouble(Object target, double a, double b) throws InvocationTargetException{
+        checkTarget(target);
+        try{
+            return (double) typedHandle(DOUBLE_2).invokeExact(target, a, b);
+        }
+        catch(Throwable t){
+            throw MethodInvoker.unwrap(t);
+        }
+    }
+
+    /**
+     * Invoke the prepared void method without boxing
+     * the arguments.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the method can't be invoked with this signature.
+     */
+    public void invokeVoid(Object target) throws InvocationTargetException{
+        checkTarget(target);
+        try{
+            typedHandle(VOID_0).invokeExact(target);
+        }
+        catch(Throwable t){
+            throw MethodInvoker.unwrap(t);
+        }
+    }
+
+    /**
+     * Invoke the prepared void method without boxing
+     * the arguments.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @param a the argument.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the method can't be invoked with this signature.
+     */
+    public void invokeVoid(Object target, int a) throws InvocationTargetException{
+        checkTarget(target);
+        try{
+            typedHandle(VOID_INT).invokeExact(target, a);
+        }
+        catch(Throwable t){
+            throw MethodInvoker.unwrap(t);
+        }
+    }
+
+    /**
+     * Invoke the prepared void method without boxing
+     * the arguments.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @param a the argument.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the method can't be invoked with this signature.
+     */
+    public void invokeVoid(Object target, long a) throws InvocationTargetException{
+        checkTarget(target);
+        try{
+            typedHandle(VOID_LONG).invokeExact(target, a);
+        }
+        catch(Throwable t){
+            throw MethodInvoker.unwrap(t);
+        }
+    }
+
+    /**
+     * Invoke the prepared void method without boxing
+     * the arguments.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @param a the argument.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the method can't be invoked with this signature.
+     */
+    public void invokeVoid(Object target, double a) throws InvocationTargetException{
+        checkTarget(target);
+        try{
+            typedHandle(VOID_DOUBLE).invokeExact(target, a);
+        }
+        catch(Throwable t){
+            throw MethodInvoker.unwrap(t);
+        }
+    }
+
+    /**
+     * Invoke the prepared void method without boxing
+     * the arguments.
+     *
+     * @param target the object to invoke the method on. Ignored
+     *               if the method is static.
+     * @param a the argument.
+     * @throws InvocationTargetException if the method throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if the target isn't an instance of the
+     *          target type, or the method can't be invoked with this signature.
+     */
+    public void invokeVoid(Object target, Object a) throws InvocationTargetException{
+        checkTarget(target);
+        try{
+            typedHandle(VOID_OBJECT).invokeExact(target, a);
+        }
+        catch(Throwable t){
+            throw MethodInvoker.unwrap(t);
+        }
+    }
+
+    private void checkTarget(Object target){
+        if(!isStatic && !targetType.isInstance(target)){
+            throw new IllegalArgumentException("Target is not an instance of " + targetType.getName() + ": " + target);
+        }
+    }
+
+    /**
+     * Get the handle for the method adapted to exactly the provided
+     * type. The handle for the method's own signature is created when
+     * the invoker is prepared, and any other type's handle is created
+     * the first time that type is used.
+     *
+     * @param type the type to adapt the method to.
+     * @return the adapted handle.
+     * @throws IllegalArgumentException if the method can't be adapted
+     *          to the type.
+     */
+    private MethodHandle typedHandle(MethodType type){
+        if(exactHandle.type().equals(type)){
+            return exactHandle;
+        }
+
+        MethodHandle handle = typedHandles.get(type);
+        if(handle == null){
+            MethodHandle directHandle = invoker.getDirectHandle();
+            if(directHandle.type().parameterCount() != type.parameterCount()){
+                throw new IllegalArgumentException("Cannot invoke " + template + " as " + type);
+            }
+
+            try{
+                handle = directHandle.asType(type);
+            }
+            catch(WrongMethodTypeException ex){
+                throw new IllegalArgumentException("Cannot invoke " + template + " as " + type, ex);
+            }
+            MethodHandle existing = typedHandles.putIfAbsent(type, handle);
+            if(existing != null){
+                handle = existing;
+            }
+        }
+        return handle;
+    }
+
+    /**
+     * Pair the prepared method with a specific object.
+     *
+     * @param target the object the method will be invoked on.
+     * @return the method paired with the object.
+     */
+    public ObjectAndMethod bind(Object target){
+        return template.rebind(target);
+    }
+
+    public Class<?> getTargetType(){
+        return targetType;
+    }
+
+    public Method getMethod(){
+        return template.getMethod();
+    }
+
+    public Class<?>[] getParamTypes(){
+        return template.getParamTypes().clone();
+    }
+
+    public int getArgCount(){
+        return argCount;
+    }
+
+    @Override
+    public String toString(){
+        return "PreparedInvoker{" + template + "}";
+    }
+
+}
@@ -0,0 +1,289 @@
+package io.craigmiller160.reflection;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled path of JavaBean properties, such as
+ * "order.customer.address.zip", that can be read or written on
+ * any number of objects. The path is parsed once, when it is
+ * compiled, and the getter and setter names for each property
+ * are worked out then, so evaluating it does no string work.
+ *
+ * Each property resolves its getter, get[Name]() or is[Name]() for
+ * booleans, and its setter, set[Name](value), once per class it
+ * is read from or written to. The resolved methods are invoked
+ * through the same cached invokers FindAndInvoke uses. A path can
+ * be safely shared between threads.
+ */
+public final class PropertyPath {
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final String path;
+    private final Property[] properties;
+
+    private PropertyPath(String path, Property[] properties){
+        this.path = path;
+        this.properties = properties;
+    }
+
+    /**
+     * Compile a property path. Properties are separated
+     * by dots.
+     *
+     * @param path the path to compile.
+     * @return the compiled path.
+     * @throws IllegalArgumentException if the path is empty, or has
+     *          an empty property.
+     */
+    public static PropertyPath compile(String path){
+        String[] names = path.split("\\.", -1);
+        Property[] properties = new Property[names.length];
+        for(int i = 0; i < names.length; i++){
+            String name = names[i].trim();
+            if(name.isEmpty()){
+                throw new IllegalArgumentException("Property path has an empty property: \"" + path + "\"");
+            }
+            properties[i] = new Property(name);
+        }
+        return new PropertyPath(path, properties);
+    }
+
+    /**
+     * Read the value at the end of the path. If any property
+     * before the last one is null, the value is null.
+     *
+     * @param root the object to start the path from.
+     * @return the value of the last property.
+     * @throws NoSuchMethodException if an object on the path has no getter for its property.
+     * @throws IllegalAccessException if a getter isn't accessible.
+     * @throws InvocationTargetException if a getter throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     */
+    public Object get(Object root) throws NoSuchMethodException, IllegalAccessException, InvocationTargetException{
+        Object current = root;
+        for(int i = 0; i < properties.length && current != null; i++){
+            current = properties[i].get(current);
+        }
+        return current;
+    }
+
+    /**
+     * Read the value at the end of the path for each of the objects.
+     *
+     * @param roots the objects to start the path from.
+     * @return the values, in the same order as the objects.
+     * @throws NoSuchMethodException if an object on the path has no getter for its property.
+     * @throws IllegalAccessException if a getter isn't accessible.
+     * @throws InvocationTargetException if a getter throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     */
+    public List<Object> getAll(Iterable<?> roots) throws NoSuchMethodException, IllegalAccessException, InvocationTargetException{
+        List<Object> values = new ArrayList<>();
+        for(Object root : roots){
+            values.add(get(root));
+        }
+        return values;
+    }
+
+    /**
+     * Write the value of the last property on the path.
+     *
+     * @param root the object to start the path from.
+     * @param value the value to set.
+     * @throws NoSuchMethodException if an object on the path has no getter, or
+     *          the last object has no setter that accepts the value.
+     * @throws IllegalAccessException if a getter or the setter isn't accessible.
+     * @throws InvocationTargetException if a getter or the setter throws a checked exception.
+     *          RuntimeExceptions and Errors are thrown directly.
+     * @throws IllegalArgumentException if a property before the last one is null.
+     */
+    public void set(Object root, Object value) throws NoSuchMethodException, IllegalAccessException, InvocationTargetException{
+        Object current = root;
+        int last = properties.length - 1;
+        for(int i = 0; i < last; i++){
+            current = properties[i].get(current);
+            if(current == null){
+                throw new IllegalArgumentException("Cannot set \"" + path + "\", property \"" + properties[i].name + "\" is null");
+            }
+        }
+        properties[last].set(current, value);
+    }
+
+    public String getPath(){
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyPath[" + path + "]";
+    }
+
+    /**
+     * A single property on the path, with the getters and
+     * setters it has resolved for each class. They are held
+     * in ClassValues, so they are released along with the
+     * classes they belong to.
+     */
+    private static final class Property {
+
+        private final String name;
+        private final String getterName;
+        private final String booleanGetterName;
+        private final String setterName;
+        private final ClassValue<Resolved> getters = new ClassValue<Resolved>() {
+            @Override
+            protected Resolved computeValue(Class<?> type) {
+                return resolveGetter(type);
+            }
+        };
+        private final ClassValue<Resolved> setters = new ClassValue<Resolved>() {
+            @Override
+            protected Resolved computeValue(Class<?> type) {
+                return resolveSetter(type);
+            }
+        };
+
+        private Property(String name){
+            this.name = name;
+            String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            this.getterName = "get" + capitalized;
+            this.booleanGetterName = "is" + capitalized;
+            this.setterName = "set" + capitalized;
+        }
+
+        private Object get(Object target) throws NoSuchMethodException, IllegalAccessException, InvocationTargetException{
+            return getters.get(target.getClass()).getInvoker().invoke(target, NO_ARGS);
+        }
+
+        private Resolved resolveGetter(Class<?> type){
+            MethodIndex index = MethodIndex.forClass(type);
+            for(Method method : index.getMethods(getterName)){
+                if(method.getParameterCount() == 0){
+                    return Resolved.of(method);
+                }
+            }
+
+            for(Method method : index.getMethods(booleanGetterName)){
+                if(method.getParameterCount() == 0 &&
+                        (method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class)){
+                    return Resolved.of(method);
+                }
+            }
+            return Resolved.failed(new NoSuchMethodException("No getter found for property: " + type.getName() + "." + name));
+        }
+
+        private void set(Object target, Object value) throws NoSuchMethodException, IllegalAccessException, InvocationTargetException{
+            Class<?> type = target.getClass();
+            Resolved setter = setters.get(type);
+            if(!setter.isOverloaded()){
+                MethodInvoker invoker = setter.getInvoker();
+                if(!setter.accepts(value)){
+                    throw new NoSuchMethodException("No setter found for property: " + type.getName() + "." + name + " " + value);
+                }
+                invoker.invoke(target, value);
+                return;
+            }
+
+            if(value == null){
+                //Null has no class to match the overloads against
+                throw new IllegalArgumentException("Cannot set null on property with overloaded setters: " + type.getName() + "." + name);
+            }
+
+            //Overloaded setters have to be matched against each value
+            OverloadIndex overloads = MethodIndex.forClass(type).getOverloads(setterName);
+            int match = overloads.findMatch(false, value);
+            if(match < 0){
+                throw new NoSuchMethodException("No setter found for property: " + type.getName() + "." + name + " " + value);
+            }
+            FindAndInvoke.invokeMatch(overloads.getTemplate(match).rebind(target), value);
+        }
+
+        /**
+         * Find the setter for the class. If it has exactly one setter
+         * that takes a single argument and it isn't varArgs, that setter
+         * is resolved, otherwise the value has to be matched against
+         * each of them.
+         */
+        private Resolved resolveSetter(Class<?> type){
+            Method setter = null;
+            int count = 0;
+            for(Method method : MethodIndex.forClass(type).getMethods(setterName)){
+                if(method.getParameterCount() == 1 || method.isVarArgs()){
+                    setter = method;
+                    count++;
+                }
+            }
+
+            if(count == 0){
+                return Resolved.failed(new NoSuchMethodException("No setter found for property: " + type.getName() + "." + name));
+            }
+            return count == 1 && !setter.isVarArgs() ? Resolved.of(setter) : Resolved.OVERLOADED;
+        }
+
+    }
+
+    /**
+     * A getter or setter resolved for a single class. Failures
+     * are resolved too, so a class without the method isn't
+     * searched again every time.
+     */
+    private static final class Resolved {
+
+        private static final Resolved OVERLOADED = new Resolved(null, null, null);
+
+        private final MethodInvoker invoker;
+        private final Class<?> paramType;
+        private final ReflectiveOperationException failure;
+
+        private Resolved(MethodInvoker invoker, Class<?> paramType, ReflectiveOperationException failure){
+            this.invoker = invoker;
+            this.paramType = paramType;
+            this.failure = failure;
+        }
+
+        private static Resolved of(Method method){
+            try{
+                Class<?> paramType = method.getParameterCount() == 1 ? method.getParameterTypes()[0] : null;
+                return new Resolved(MethodInvoker.forMethod(method), paramType, null);
+            }
+            catch(IllegalAccessException ex){
+                return failed(ex);
+            }
+        }
+
+        private static Resolved failed(ReflectiveOperationException failure){
+            return new Resolved(null, null, failure);
+        }
+
+        private boolean isOverloaded(){
+            return this == OVERLOADED;
+        }
+
+        /**
+         * Get the invoker, or throw a new copy of the exception
+         * it failed to resolve with.
+         */
+        private MethodInvoker getInvoker() throws NoSuchMethodException, IllegalAccessException{
+            if(failure instanceof IllegalAccessException){
+                throw new IllegalAccessException(failure.getMessage());
+            }
+            else if(failure != null){
+                throw new NoSuchMethodException(failure.getMessage());
+            }
+            return invoker;
+        }
+
+        /**
+         * Test if the value can be passed to a setter.
+         */
+        private boolean accepts(Object value){
+            return value == null ? !paramType.isPrimitive() : Assignability.isAssignable(paramType, value.getClass());
+        }
+
+    }
+
+}
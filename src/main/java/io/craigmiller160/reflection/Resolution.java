@@ -0,0 +1,112 @@
+package io.craigmiller160.reflection;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+
+/**
+ * The outcome of resolving a method name and set of
+ * arguments against one or more target objects. This
+ * records either which method matched and the index
+ * of the target object it belongs to, or that there
+ * was no match. A match also records its position among
+ * all the methods with the same name across all the
+ * targets, in the order they were searched, so anything
+ * that has those candidates precomputed can go straight
+ * to the match. A "no match" outcome also records
+ * whether there were any methods with the name at all,
+ * so the correct exception can still be thrown when
+ * the outcome comes from the cache.
+ *
+ * A resolution stored in a long-lived cache is weakened first, so
+ * a method whose class could be unloaded is only weakly referenced.
+ * Once that method has been collected, the resolution is stale and
+ * has to be resolved again.
+ */
+final class Resolution {
+
+    private static final Resolution NO_MATCH = new Resolution(-1, -1, null, true);
+    private static final Resolution NO_CANDIDATES = new Resolution(-1, -1, null, false);
+
+    private final int targetIndex;
+    private final int candidateIndex;
+    private final Method method;
+    private final WeakReference<Method> methodRef;
+    private final boolean hasCandidates;
+
+    private Resolution(int targetIndex, int candidateIndex, Method method, boolean hasCandidates){
+        this.targetIndex = targetIndex;
+        this.candidateIndex = candidateIndex;
+        this.method = method;
+        this.methodRef = null;
+        this.hasCandidates = hasCandidates;
+    }
+
+    private Resolution(Resolution resolution){
+        this.targetIndex = resolution.targetIndex;
+        this.candidateIndex = resolution.candidateIndex;
+        this.method = null;
+        this.methodRef = new WeakReference<>(resolution.method);
+        this.hasCandidates = resolution.hasCandidates;
+    }
+
+    static Resolution match(int targetIndex, int candidateIndex, Method method){
+        return new Resolution(targetIndex, candidateIndex, method, true);
+    }
+
+    static Resolution noMatch(){
+        return NO_MATCH;
+    }
+
+    static Resolution noCandidates(){
+        return NO_CANDIDATES;
+    }
+
+    /**
+     * Create a copy of this resolution that only weakly references
+     * its method, if the method's class could be unloaded.
+     *
+     * @return the weakened resolution, or this resolution if its
+     *          method's class is permanent or there is no method.
+     */
+    Resolution weaken(){
+        if(method == null || ResolutionKey.isPermanent(method.getDeclaringClass())){
+            return this;
+        }
+        return new Resolution(this);
+    }
+
+    /**
+     * Test if the method this resolution matched has been
+     * collected, so the resolution can no longer be used.
+     *
+     * @return true if the resolution is stale.
+     */
+    boolean isStale(){
+        return methodRef != null && methodRef.get() == null;
+    }
+
+    boolean isWeak(){
+        return methodRef != null;
+    }
+
+    boolean isMatch(){
+        return method != null || methodRef != null;
+    }
+
+    boolean hasCandidates(){
+        return hasCandidates;
+    }
+
+    int getTargetIndex(){
+        return targetIndex;
+    }
+
+    int getCandidateIndex(){
+        return candidateIndex;
+    }
+
+    Method getMethod(){
+        return methodRef != null ? methodRef.get() : method;
+    }
+
+}
@@ -0,0 +1,404 @@
+package io.craigmiller160.reflection;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of method resolutions. Once the method
+ * that matches a given set of target classes, method name,
+ * and argument classes has been found, it's stored here so
+ * that repeat invocations skip the overload matching entirely.
+ * Failed resolutions are stored as well, so repeated misses
+ * are just as cheap.
+ *
+ * The cache is safe to use from any number of threads. Lookups
+ * never lock, and when several threads resolve the same key for
+ * the first time at once, only one of them does the resolving
+ * while the rest wait for its outcome.
+ *
+ * The cache holds at most getMaximumSize() entries, apart from
+ * briefly while entries are being added concurrently. When it
+ * grows past that, the least recently used entries are evicted
+ * in a batch, so the cost of eviction is spread across many
+ * additions. Recency is tracked with a clock that only advances
+ * when entries are added, so lookups don't contend on it. Hit,
+ * miss, and eviction counts are tracked so the cache can be
+ * sized appropriately.
+ *
+ * The cache never keeps a ClassLoader alive. Any class in a key, or
+ * method in a resolution, that belongs to a loader other than this
+ * library's loader or its parents is only weakly referenced. Entries
+ * whose classes have been collected are purged as new entries are
+ * added, and all the entries for a loader can be removed up front
+ * with invalidate(), such as when a plugin is redeployed.
+ */
+public class ResolutionCache {
+
+    /**
+     * The system property that can be used to set the maximum
+     * size of the cache used by FindAndInvoke.
+     */
+    public static final String MAX_SIZE_PROPERTY = "io.craigmiller160.reflection.resolutionCacheSize";
+
+    /**
+     * The default maximum size of the cache used by FindAndInvoke.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    /**
+     * Each eviction removes enough entries to bring the cache this
+     * fraction of its maximum size below the maximum.
+     */
+    private static final int EVICTION_BATCH_DIVISOR = 16;
+
+    //Approximate shallow sizes, with compressed references
+    private static final int ENTRY_BYTES = 64;
+    private static final int KEY_BYTES = 32;
+    private static final int RESOLUTION_BYTES = 32;
+    private static final int REFERENCE_BYTES = 40;
+
+    private final int maximumSize;
+    private final ConcurrentHashMap<ResolutionKey,Entry> cache = new ConcurrentHashMap<>();
+    //The resolutions in progress, so each key is only resolved once at a time
+    private final ConcurrentHashMap<ResolutionKey,CompletableFuture<Resolution>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final Object evictionLock = new Object();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder purgeCount = new LongAdder();
+    private final ReferenceQueue<Class<?>> collected = new ReferenceQueue<>();
+
+    ResolutionCache(final int maximumSize){
+        if(maximumSize < 0){
+            throw new IllegalArgumentException("Maximum size cannot be negative: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Create the cache used by FindAndInvoke, sized by the
+     * MAX_SIZE_PROPERTY system property if it is set.
+     *
+     * @return the new cache.
+     */
+    static ResolutionCache fromSystemProperties(){
+        return new ResolutionCache(Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE));
+    }
+
+    Resolution get(ResolutionKey key){
+        Entry entry = cache.get(key);
+        if(entry != null && entry.resolution.isStale()){
+            remove(entry);
+            entry = null;
+        }
+
+        if(entry != null){
+            entry.touch(clock.get());
+            hitCount.increment();
+            return entry.resolution;
+        }
+        missCount.increment();
+        return null;
+    }
+
+    void put(ResolutionKey key, Resolution resolution){
+        if(maximumSize == 0){
+            return;
+        }
+
+        purgeCollected();
+        ResolutionKey weakKey = key.weaken(collected);
+        Entry entry = new Entry(weakKey, resolution.weaken(), clock.getAndIncrement());
+        cache.put(weakKey, entry);
+        evictIfFull();
+    }
+
+    /**
+     * Get the resolution for the key, resolving it if it isn't
+     * cached. If several threads call this for the same key at
+     * once, only one of them calls the resolver, and the others
+     * wait for and share its outcome. The resolver runs outside
+     * of any lock the map holds, so a slow resolution never
+     * blocks lookups or resolutions of other keys. Lookups aren't
+     * counted as hits or misses, since this is called after get()
+     * has already missed.
+     *
+     * @param key the key to get the resolution for.
+     * @param resolver the function that resolves the key. It must
+     *                 not use this cache.
+     * @return the resolution.
+     */
+    Resolution computeIfAbsent(ResolutionKey key, Function<ResolutionKey,Resolution> resolver){
+        if(maximumSize == 0){
+            return resolver.apply(key);
+        }
+
+        CompletableFuture<Resolution> future = new CompletableFuture<>();
+        CompletableFuture<Resolution> existing = pending.putIfAbsent(key, future);
+        if(existing != null){
+            return await(existing);
+        }
+
+        try{
+            //Another thread may have finished this key between the caller's get() and now
+            Entry entry = cache.get(key);
+            Resolution resolution;
+            if(entry != null && !entry.resolution.isStale()){
+                resolution = entry.resolution;
+            }
+            else{
+                resolution = resolver.apply(key);
+                put(key, resolution);
+            }
+            future.complete(resolution);
+            return resolution;
+        }
+        catch(RuntimeException | Error ex){
+            future.completeExceptionally(ex);
+            throw ex;
+        }
+        finally{
+            pending.remove(key, future);
+        }
+    }
+
+    private static Resolution await(CompletableFuture<Resolution> future){
+        try{
+            return future.join();
+        }
+        catch(CompletionException ex){
+            //Rethrow what the resolving thread threw, rather than the wrapper
+            if(ex.getCause() instanceof Error){
+                throw (Error) ex.getCause();
+            }
+            throw (RuntimeException) ex.getCause();
+        }
+    }
+
+    private void remove(Entry entry){
+        if(cache.remove(entry.key, entry)){
+            purgeCount.increment();
+        }
+    }
+
+    /**
+     * Remove the entries whose classes have been collected.
+     */
+    private void purgeCollected(){
+        Reference<? extends Class<?>> ref;
+        while((ref = collected.poll()) != null){
+            //A stale key is only equal to itself, so this removes exactly that entry
+            ResolutionKey key = ResolutionKey.keyOf(ref);
+            if(key != null && cache.remove(key) != null){
+                purgeCount.increment();
+            }
+        }
+    }
+
+    /**
+     * If the cache has grown past its maximum size, evict the least
+     * recently used entries, leaving room for a batch of new entries
+     * before the next eviction.
+     */
+    private void evictIfFull(){
+        if(cache.size() <= maximumSize){
+            return;
+        }
+
+        synchronized (evictionLock){
+            //Recency is snapshotted first, since lookups keep updating it while sorting
+            List<Entry> entries = new ArrayList<>(cache.values());
+            int excess = entries.size() - (maximumSize - maximumSize / EVICTION_BATCH_DIVISOR);
+            if(excess <= 0){
+                return;
+            }
+
+            long[] accessed = new long[entries.size()];
+            for(int i = 0; i < accessed.length; i++){
+                accessed[i] = entries.get(i).lastAccess;
+            }
+            long[] sorted = accessed.clone();
+            Arrays.sort(sorted);
+            long threshold = sorted[excess - 1];
+
+            DispatchListener listener = DispatchMetrics.getListener();
+            int evicted = 0;
+            for(int i = 0; i < accessed.length && evicted < excess; i++){
+                if(accessed[i] <= threshold && cache.remove(entries.get(i).key, entries.get(i))){
+                    evicted++;
+                    evictionCount.increment();
+                    if(listener != null){
+                        listener.onCacheEviction();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove every entry that involves a class loaded by the
+     * ClassLoader or any of its descendants. This includes the
+     * classes of the targets and arguments, and the class that
+     * declares the resolved method. Call this when a ClassLoader
+     * is being discarded, so its entries don't take up space
+     * until they are purged.
+     *
+     * @param loader the ClassLoader to remove the entries of.
+     * @return the number of entries removed.
+     */
+    public int invalidate(ClassLoader loader){
+        purgeCollected();
+        int removed = 0;
+        for(Entry entry : cache.values()){
+            if((entry.key.isLoadedBy(loader) || isLoadedBy(entry.resolution, loader)) &&
+                    cache.remove(entry.key, entry)){
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private static boolean isLoadedBy(Resolution resolution, ClassLoader loader){
+        if(!resolution.isMatch()){
+            return false;
+        }
+        Method method = resolution.getMethod();
+        return method == null || ResolutionKey.isLoadedBy(method.getDeclaringClass().getClassLoader(), loader);
+    }
+
+    /**
+     * Estimate how much memory the cache is using. The estimate
+     * counts the map entries, keys, and resolutions the cache
+     * has allocated, assuming a 64-bit JVM with compressed
+     * references. The classes and methods themselves aren't
+     * counted, since they belong to the rest of the application.
+     *
+     * @return the estimated footprint.
+     */
+    public CacheFootprint getFootprint(){
+        purgeCollected();
+        int entries = 0;
+        int weakEntries = 0;
+        long bytes = 0;
+        for(Entry entry : cache.values()){
+            int weakCount = entry.key.getWeakCount();
+            entries++;
+            if(weakCount > 0 || entry.resolution.isWeak()){
+                weakEntries++;
+            }
+
+            bytes += ENTRY_BYTES + KEY_BYTES + RESOLUTION_BYTES;
+            //The two class arrays, each with a 16 byte header
+            bytes += 32 + 4L * entry.key.getClassCount();
+            bytes += REFERENCE_BYTES * weakCount;
+            bytes += entry.resolution.isWeak() ? REFERENCE_BYTES : 0;
+        }
+        //The hash table itself
+        bytes += 16 + 4L * tableSize(entries);
+        return new CacheFootprint(entries, weakEntries, maximumSize, purgeCount.sum(), bytes);
+    }
+
+    private static int tableSize(int entries){
+        int size = 16;
+        while(size * 0.75 < entries){
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * Remove all entries from the cache. This does not
+     * reset the hit, miss, or eviction counts.
+     */
+    public void clear(){
+        cache.clear();
+    }
+
+    public int size(){
+        return cache.size();
+    }
+
+    public int getMaximumSize(){
+        return maximumSize;
+    }
+
+    public long getHitCount(){
+        return hitCount.sum();
+    }
+
+    public long getMissCount(){
+        return missCount.sum();
+    }
+
+    public long getEvictionCount(){
+        return evictionCount.sum();
+    }
+
+    /**
+     * Get the number of entries that have been removed because
+     * their classes were collected. Entries removed by
+     * invalidate() or clear() aren't counted.
+     *
+     * @return the number of purged entries.
+     */
+    public long getPurgeCount(){
+        return purgeCount.sum();
+    }
+
+    /**
+     * Get the ratio of lookups that were found in the cache.
+     *
+     * @return the hit rate, between 0 and 1. If there have been
+     *          no lookups, this will be 0.
+     */
+    public double getHitRate(){
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString(){
+        return "ResolutionCache{size=" + size() + ", maximumSize=" + maximumSize +
+                ", hits=" + getHitCount() + ", misses=" + getMissCount() +
+                ", evictions=" + getEvictionCount() + ", purged=" + getPurgeCount() + "}";
+    }
+
+    /**
+     * A cached resolution, with the key it is stored under and
+     * when it was last used.
+     */
+    private static final class Entry {
+
+        private final ResolutionKey key;
+        private final Resolution resolution;
+        private volatile long lastAccess;
+
+        private Entry(ResolutionKey key, Resolution resolution, long lastAccess){
+            this.key = key;
+            this.resolution = resolution;
+            this.lastAccess = lastAccess;
+        }
+
+        private void touch(long now){
+            //Only write when the clock has moved, so hot entries aren't written on every lookup
+            if(lastAccess != now){
+                lastAccess = now;
+            }
+        }
+
+    }
+
+}
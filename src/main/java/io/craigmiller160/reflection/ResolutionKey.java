@@ -0,0 +1,254 @@
+package io.craigmiller160.reflection;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * The key for a cached method resolution. A resolution
+ * is determined entirely by the runtime classes of the
+ * objects being searched, the name of the method, and
+ * the runtime classes of the arguments, so those three
+ * things are what make up this key.
+ *
+ * Keys are created with strong references to their classes,
+ * for looking up entries. Before a key is stored in a long-lived
+ * cache it is weakened, so that it only holds weak references to
+ * any class that could be unloaded, and never keeps a ClassLoader
+ * alive. A weakened key is equal to a strong key for the same
+ * classes until any of its classes is collected, after which it
+ * is equal to nothing but itself.
+ */
+final class ResolutionKey {
+
+    private static final ClassLoader LIBRARY_LOADER = ResolutionKey.class.getClassLoader();
+
+    //Each element is either a Class or a ClassRef
+    private final Object[] receiverClasses;
+    private final String methodName;
+    private final Object[] argClasses;
+    private final int hash;
+
+    ResolutionKey(Class<?>[] receiverClasses, String methodName, Class<?>[] argClasses){
+        this.receiverClasses = receiverClasses;
+        this.methodName = methodName;
+        this.argClasses = argClasses;
+
+        int result = Arrays.hashCode(receiverClasses);
+        result = 31 * result + methodName.hashCode();
+        result = 31 * result + Arrays.hashCode(argClasses);
+        this.hash = result;
+    }
+
+    private ResolutionKey(ResolutionKey key, ReferenceQueue<Class<?>> queue){
+        this.methodName = key.methodName;
+        this.hash = key.hash;
+        this.receiverClasses = weaken(key.receiverClasses, queue);
+        this.argClasses = weaken(key.argClasses, queue);
+    }
+
+    /**
+     * Get the runtime classes of all the provided values.
+     * A null value has no runtime class, so if any are
+     * null then no key can be built for them.
+     *
+     * @param values the values to get the classes of.
+     * @return the classes of the values, or null if
+     *          any of the values are null.
+     */
+    static Class<?>[] classesOf(Object...values){
+        Class<?>[] classes = new Class<?>[values.length];
+        for(int i = 0; i < values.length; i++){
+            if(values[i] == null){
+                return null;
+            }
+            classes[i] = values[i].getClass();
+        }
+        return classes;
+    }
+
+    /**
+     * Test if a class can never be unloaded while this library
+     * is loaded, because its ClassLoader is the bootstrap loader,
+     * or this library's loader or one of its parents.
+     *
+     * @param type the class to test.
+     * @return true if the class is safe to reference strongly.
+     */
+    static boolean isPermanent(Class<?> type){
+        ClassLoader loader = type.getClassLoader();
+        return loader == null || isLoadedBy(LIBRARY_LOADER, loader);
+    }
+
+    /**
+     * Test if a ClassLoader is the provided loader
+     * or one of its descendants.
+     *
+     * @param loader the loader to test.
+     * @param ancestor the loader to look for.
+     * @return true if the loader is, or descends from, the ancestor.
+     */
+    static boolean isLoadedBy(ClassLoader loader, ClassLoader ancestor){
+        for(ClassLoader current = loader; current != null; current = current.getParent()){
+            if(current == ancestor){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create a copy of this key that only weakly references any
+     * class that could be unloaded. If a queue is provided, the
+     * references are registered with it, and each can be turned
+     * back into the key it belongs to with keyOf().
+     *
+     * @param queue the queue to register the references with, may be null.
+     * @return the weakened key, or this key if all its classes are permanent.
+     */
+    ResolutionKey weaken(ReferenceQueue<Class<?>> queue){
+        for(Object c : receiverClasses){
+            if(!isPermanent((Class<?>) c)){
+                return new ResolutionKey(this, queue);
+            }
+        }
+        for(Object c : argClasses){
+            if(!isPermanent((Class<?>) c)){
+                return new ResolutionKey(this, queue);
+            }
+        }
+        return this;
+    }
+
+    private Object[] weaken(Object[] classes, ReferenceQueue<Class<?>> queue){
+        Object[] weakened = new Object[classes.length];
+        for(int i = 0; i < classes.length; i++){
+            Class<?> c = (Class<?>) classes[i];
+            weakened[i] = isPermanent(c) ? c : new ClassRef(c, queue, this);
+        }
+        return weakened;
+    }
+
+    /**
+     * Get the key a reference taken from a ReferenceQueue
+     * belongs to.
+     *
+     * @param ref the reference.
+     * @return the key, or null if the reference isn't from a key.
+     */
+    static ResolutionKey keyOf(Object ref){
+        return ref instanceof ClassRef ? ((ClassRef) ref).key : null;
+    }
+
+    /**
+     * Test if any of the classes in this key are loaded by the
+     * provided ClassLoader or one of its descendants. A class that
+     * has already been collected counts as loaded by it, since the
+     * key can never match again.
+     *
+     * @param loader the loader to test for.
+     * @return true if any class in the key is loaded by the loader.
+     */
+    boolean isLoadedBy(ClassLoader loader){
+        return anyLoadedBy(receiverClasses, loader) || anyLoadedBy(argClasses, loader);
+    }
+
+    private static boolean anyLoadedBy(Object[] classes, ClassLoader loader){
+        for(int i = 0; i < classes.length; i++){
+            Class<?> c = classAt(classes, i);
+            if(c == null || isLoadedBy(c.getClassLoader(), loader)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of classes this key holds weakly.
+     *
+     * @return the number of weak references.
+     */
+    int getWeakCount(){
+        int count = 0;
+        for(Object c : receiverClasses){
+            count += c instanceof ClassRef ? 1 : 0;
+        }
+        for(Object c : argClasses){
+            count += c instanceof ClassRef ? 1 : 0;
+        }
+        return count;
+    }
+
+    int getClassCount(){
+        return receiverClasses.length + argClasses.length;
+    }
+
+    String getMethodName(){
+        return methodName;
+    }
+
+    private static Class<?> classAt(Object[] classes, int index){
+        Object c = classes[index];
+        return c instanceof ClassRef ? ((ClassRef) c).get() : (Class<?>) c;
+    }
+
+    private static boolean classesEqual(Object[] a, Object[] b){
+        if(a.length != b.length){
+            return false;
+        }
+        for(int i = 0; i < a.length; i++){
+            Class<?> c = classAt(a, i);
+            if(c == null || c != classAt(b, i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ResolutionKey that = (ResolutionKey) o;
+
+        return hash == that.hash &&
+                methodName.equals(that.methodName) &&
+                classesEqual(receiverClasses, that.receiverClasses) &&
+                classesEqual(argClasses, that.argClasses);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString(){
+        return toString(receiverClasses) + "." + methodName + toString(argClasses);
+    }
+
+    private static String toString(Object[] classes){
+        Class<?>[] resolved = new Class<?>[classes.length];
+        for(int i = 0; i < classes.length; i++){
+            resolved[i] = classAt(classes, i);
+        }
+        return Arrays.toString(resolved);
+    }
+
+    /**
+     * A weak reference to a class in a key, which remembers
+     * the key so it can be removed once the class is collected.
+     */
+    private static final class ClassRef extends WeakReference<Class<?>> {
+
+        private final ResolutionKey key;
+
+        private ClassRef(Class<?> referent, ReferenceQueue<Class<?>> queue, ResolutionKey key){
+            super(referent, queue);
+            this.key = key;
+        }
+
+    }
+
+}
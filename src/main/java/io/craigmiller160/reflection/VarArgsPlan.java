@@ -0,0 +1,106 @@
+package io.craigmiller160.reflection;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+
+/**
+ * A precomputed plan for converting arguments for a method
+ * invocation. When the types of the arguments are known ahead
+ * of time, the decision convertParamsForVarArgsMethod() makes
+ * on every call, whether the trailing arguments need to be
+ * packed into the varArgs array or are already an array, can
+ * be made once. Applying the plan then just copies the arguments
+ * into place.
+ */
+final class VarArgsPlan {
+
+    private static final VarArgsPlan DIRECT = new VarArgsPlan(-1, null, -1);
+
+    private final int fixedCount;
+    private final Class<?> componentType;
+    private final int varArgsCount;
+
+    private VarArgsPlan(int fixedCount, Class<?> componentType, int varArgsCount){
+        this.fixedCount = fixedCount;
+        this.componentType = componentType;
+        this.varArgsCount = varArgsCount;
+    }
+
+    /**
+     * Create the plan for invoking the method with arguments of
+     * the provided types. The method must already be known to be
+     * a valid invocation for those types.
+     *
+     * @param method the method that will be invoked.
+     * @param argTypes the types of the arguments it will be invoked with.
+     * @return the plan for converting the arguments.
+     */
+    static VarArgsPlan forTypes(Method method, Class<?>...argTypes){
+        if(!method.isVarArgs()){
+            return DIRECT;
+        }
+
+        Class<?>[] paramTypes = method.getParameterTypes();
+        int varArgsIndex = paramTypes.length - 1;
+        Class<?> varArgType = paramTypes[varArgsIndex];
+        if(argTypes.length == paramTypes.length && varArgType.isAssignableFrom(argTypes[varArgsIndex])){
+            //This is if an array is already provided
+            return DIRECT;
+        }
+
+        return new VarArgsPlan(varArgsIndex, varArgType.getComponentType(), argTypes.length - varArgsIndex);
+    }
+
+    /**
+     * Convert the arguments according to this plan.
+     *
+     * @param args the arguments, in the shape that was planned for.
+     * @return the arguments to invoke the method with.
+     */
+    Object[] apply(Object...args){
+        return apply(null, args);
+    }
+
+    /**
+     * Convert the arguments according to this plan, the same as
+     * apply(Object...), but put them in the buffer instead of a new
+     * array if its length matches the method's parameter count. The
+     * varArgs array itself is always a new array, because the invoked
+     * method is free to keep a reference to it.
+     *
+     * @param buffer the array to put the converted arguments in, may be null.
+     * @param args the arguments, in the shape that was planned for.
+     * @return the arguments to invoke the method with.
+     */
+    Object[] apply(Object[] buffer, Object...args){
+        if(fixedCount < 0){
+            return args;
+        }
+
+        Object[] result = buffer != null && buffer.length == fixedCount + 1 ? buffer : new Object[fixedCount + 1];
+        System.arraycopy(args, 0, result, 0, fixedCount);
+
+        Object varArgs = Array.newInstance(componentType, varArgsCount);
+        for(int i = 0; i < varArgsCount; i++){
+            Array.set(varArgs, i, args[fixedCount + i]);
+        }
+        result[fixedCount] = varArgs;
+
+        return result;
+    }
+
+    /**
+     * Get the number of parameters of the planned method, which
+     * is the length of the array apply() returns when it converts.
+     *
+     * @return the parameter count, or -1 if the arguments are used directly.
+     */
+    int getParamCount(){
+        return fixedCount < 0 ? -1 : fixedCount + 1;
+    }
+
+    boolean isDirect(){
+        return fixedCount < 0;
+    }
+
+}
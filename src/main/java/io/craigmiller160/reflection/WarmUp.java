@@ -0,0 +1,163 @@
+package io.craigmiller160.reflection;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the dispatch metadata for a set of classes ahead of time,
+ * so the first invocations after startup don't pay for it. Each
+ * class is a separate task on a ForkJoinPool, since most of the
+ * cost is in Class.getMethods() and creating MethodHandles, which
+ * are independent per class.
+ *
+ * Synthetic invocations never touch the classes being warmed up,
+ * since invoking application methods could have side effects.
+ * They go through the real dispatch code against an internal
+ * target instead, which gets the library's own code compiled by
+ * the JIT before real traffic arrives, without recording anything
+ * in the global cache or the dispatch metrics.
+ */
+final class WarmUp {
+
+    private static final String SYNTHETIC_METHOD = "handle";
+
+    private static final Object[][] SYNTHETIC_ARGS = {
+            {"Value"},
+            {1},
+            {1L, "Value", 2},
+            {1L}
+    };
+
+    private static final Object[] MISSING_ARGS = {1.5};
+
+    private final String[] methodNames;
+    private final AtomicInteger methodCount = new AtomicInteger();
+    private final AtomicInteger skippedCount = new AtomicInteger();
+
+    private WarmUp(String[] methodNames){
+        this.methodNames = methodNames;
+    }
+
+    /**
+     * Warm up the classes on the pool, blocking until it is done.
+     *
+     * @param pool the pool to run the warm up on.
+     * @param classes the classes to warm up.
+     * @param methodNames the names or full signatures of the methods to warm
+     *                    up, or none to warm up every public method.
+     * @param syntheticInvocations the number of synthetic invocations to run.
+     * @return what was warmed up.
+     */
+    static WarmUpResult run(ForkJoinPool pool, Collection<? extends Class<?>> classes, String[] methodNames, int syntheticInvocations){
+        if(syntheticInvocations < 0){
+            throw new IllegalArgumentException("Synthetic invocations cannot be negative: " + syntheticInvocations);
+        }
+
+        long start = System.nanoTime();
+        WarmUp warmUp = new WarmUp(methodNames);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for(Class<?> type : classes){
+            tasks.add(pool.submit(() -> warmUp.warmUpClass(type)));
+        }
+
+        //Split across the pool, so each thread's copy of the dispatch path gets exercised
+        int parallelism = Math.max(1, Math.min(pool.getParallelism(), syntheticInvocations));
+        for(int i = 0; i < parallelism && syntheticInvocations > 0; i++){
+            int count = syntheticInvocations / parallelism + (i < syntheticInvocations % parallelism ? 1 : 0);
+            tasks.add(pool.submit(() -> invokeSynthetic(count)));
+        }
+
+        for(ForkJoinTask<?> task : tasks){
+            task.join();
+        }
+        return new WarmUpResult(classes.size(), warmUp.methodCount.get(), warmUp.skippedCount.get(),
+                syntheticInvocations, System.nanoTime() - start);
+    }
+
+    private void warmUpClass(Class<?> type){
+        MethodIndex index = MethodIndex.forClass(type);
+        Collection<String> names = methodNames.length > 0 ? Arrays.asList(methodNames) : index.getMethodNames();
+        for(String name : names){
+            if(MethodSignature.isFullSignature(name)){
+                Method method = index.getMethod(MethodSignature.parse(name));
+                if(method != null){
+                    warmUpMethod(method);
+                }
+                continue;
+            }
+
+            for(Method method : index.getMethods(name)){
+                warmUpMethod(method);
+            }
+        }
+    }
+
+    private void warmUpMethod(Method method){
+        try{
+            MethodInvoker.forMethod(method);
+            methodCount.incrementAndGet();
+        }
+        catch(IllegalAccessException ex){
+            skippedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Run the synthetic invocations. They go through the same
+     * resolve() and invokeMatch() code as findAndInvokeMethod(),
+     * but with a private cache and no DispatchListener, so nothing
+     * about them is visible in the global cache or the dispatch
+     * metrics.
+     */
+    private static void invokeSynthetic(int count){
+        Object[] targets = {new Target()};
+        Class<?>[] receiverClasses = {Target.class};
+        ResolutionCache cache = new ResolutionCache(SYNTHETIC_ARGS.length + 1);
+        try{
+            for(int i = 0; i < count; i++){
+                Object[] args = SYNTHETIC_ARGS[i % SYNTHETIC_ARGS.length];
+                Resolution resolution = FindAndInvoke.resolve(receiverClasses, targets, SYNTHETIC_METHOD, args, cache, null);
+                if(!resolution.isMatch()){
+                    throw new IllegalStateException("No synthetic method matches: " + Arrays.toString(args));
+                }
+                FindAndInvoke.invokeMatch(new ObjectAndMethod(targets[0], resolution.getMethod()), null, args);
+
+                //The miss path too, since some callers probe for methods
+                if(i % SYNTHETIC_ARGS.length == 0){
+                    FindAndInvoke.resolve(receiverClasses, targets, SYNTHETIC_METHOD, MISSING_ARGS, cache, null);
+                }
+            }
+        }
+        catch(IllegalAccessException | InvocationTargetException ex){
+            throw new IllegalStateException("Synthetic invocation failed", ex);
+        }
+    }
+
+    /**
+     * The target of synthetic invocations, with overloads that
+     * cover reference, boxed, and varArgs matching.
+     */
+    public static final class Target {
+
+        public int handle(String value){
+            return value.length();
+        }
+
+        public int handle(Integer value){
+            return value;
+        }
+
+        public int handle(Long value, Object...values){
+            return values.length;
+        }
+
+    }
+
+}
@@ -0,0 +1,64 @@
+package io.craigmiller160.reflection;
+
+/**
+ * What a call to FindAndInvoke.warmUp() did: how many classes
+ * were indexed, how many methods had invokers built for them,
+ * and how long it took.
+ */
+public final class WarmUpResult {
+
+    private final int classCount;
+    private final int methodCount;
+    private final int skippedCount;
+    private final int syntheticInvocationCount;
+    private final long elapsedNanos;
+
+    WarmUpResult(int classCount, int methodCount, int skippedCount, int syntheticInvocationCount, long elapsedNanos){
+        this.classCount = classCount;
+        this.methodCount = methodCount;
+        this.skippedCount = skippedCount;
+        this.syntheticInvocationCount = syntheticInvocationCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getClassCount(){
+        return classCount;
+    }
+
+    /**
+     * Get the number of methods that had invokers built
+     * for them, and so are ready to be invoked.
+     *
+     * @return the number of methods warmed up.
+     */
+    public int getMethodCount(){
+        return methodCount;
+    }
+
+    /**
+     * Get the number of methods that couldn't be warmed up
+     * because they aren't accessible to this library. Invoking
+     * them would fail with an IllegalAccessException anyway.
+     *
+     * @return the number of methods skipped.
+     */
+    public int getSkippedCount(){
+        return skippedCount;
+    }
+
+    public int getSyntheticInvocationCount(){
+        return syntheticInvocationCount;
+    }
+
+    public long getElapsedNanos(){
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString(){
+        return "WarmUpResult{classes=" + classCount + ", methods=" + methodCount +
+                ", skipped=" + skippedCount + ", syntheticInvocations=" + syntheticInvocationCount +
+                ", elapsedNanos=" + elapsedNanos + "}";
+    }
+
+}
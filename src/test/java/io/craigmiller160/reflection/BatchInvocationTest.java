@@ -0,0 +1,183 @@
+package io.craigmiller160.reflection;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BatchInvocationTest {
+
+    /**
+     * Test invoking the same method on targets
+     * of several different classes.
+     */
+    @Test
+    public void testInvokeOnAll(){
+        Object[] targets = new Object[]{new TestClass1("A"), new TestClass2(), new TestClass1("B")};
+        BatchResult result = FindAndInvoke.invokeOnAll(targets, "describe", "One");
+
+        assertEquals("Result wrong size", 3, result.size());
+        assertFalse("Batch has failures", result.hasFailures());
+        assertEquals("First result is wrong", "A One", result.getResult(0));
+        assertEquals("Second result is wrong", "TestClass2 One", result.getResult(1));
+        assertEquals("Third result is wrong", "B One", result.getResult(2));
+    }
+
+    /**
+     * Test that failures are recorded without
+     * stopping the rest of the batch.
+     */
+    @Test
+    public void testInvokeOnAllWithFailures(){
+        Object[] targets = new Object[]{new TestClass1("A"), "No describe method", null, new TestClass1("fail")};
+        BatchResult result = FindAndInvoke.invokeOnAll(Arrays.asList(targets), "describe", "One");
+
+        assertEquals("Wrong failure count", 3, result.getFailureCount());
+        assertTrue("First invocation failed", result.isSuccess(0));
+        assertEquals("First result is wrong", "A One", result.getResult(0));
+        assertTrue("Wrong failure for missing method", result.getFailure(1) instanceof NoSuchMethodException);
+        assertTrue("Wrong failure for null target", result.getFailure(2) instanceof NullPointerException);
+        assertTrue("Wrong failure for thrown exception", result.getFailure(3) instanceof IllegalStateException);
+        assertNull("Failed invocation has a result", result.getResult(3));
+    }
+
+    /**
+     * Test invoking the same method on the same target
+     * with many rows of params, including rows that resolve
+     * to different overloads.
+     */
+    @Test
+    public void testInvokeForEach(){
+        Object[][] rows = new Object[][]{
+                {"One"},
+                {1},
+                {"Two"},
+                {1, 2}
+        };
+        BatchResult result = FindAndInvoke.invokeForEach(new TestClass1("A"), "describe", rows);
+
+        assertEquals("Result wrong size", 4, result.size());
+        assertEquals("Wrong failure count", 1, result.getFailureCount());
+        assertEquals("First result is wrong", "A One", result.getResult(0));
+        assertEquals("Second result is wrong", "A number 1", result.getResult(1));
+        assertEquals("Third result is wrong", "A Two", result.getResult(2));
+        assertTrue("Wrong failure for no match", result.getFailure(3) instanceof NoSuchMethodException);
+    }
+
+    /**
+     * Test invoking a large batch in parallel on the
+     * default executor, which should keep the results
+     * in the same order as the targets.
+     */
+    @Test
+    public void testInvokeOnAllParallel(){
+        Object[] targets = new Object[1000];
+        for(int i = 0; i < targets.length; i++){
+            targets[i] = i % 2 == 0 ? new TestClass1("" + i) : new TestClass2();
+        }
+
+        BatchResult result = FindAndInvoke.invokeOnAllParallel(targets, "describe", "One");
+        assertFalse("Batch has failures", result.hasFailures());
+        for(int i = 0; i < targets.length; i++){
+            String expected = i % 2 == 0 ? i + " One" : "TestClass2 One";
+            assertEquals("Result out of order at " + i, expected, result.getResult(i));
+        }
+    }
+
+    /**
+     * Test invoking a large batch of argument rows in
+     * parallel on a provided executor.
+     */
+    @Test
+    public void testInvokeForEachParallel() throws Exception{
+        Object[][] rows = new Object[1000][];
+        for(int i = 0; i < rows.length; i++){
+            rows[i] = new Object[]{i};
+        }
+
+        ExecutorService executor = BatchExecutors.isVirtualThreadSupported() ?
+                BatchExecutors.newVirtualThreadExecutor() : Executors.newFixedThreadPool(4);
+        try{
+            BatchResult result = FindAndInvoke.invokeForEachParallel(executor, new TestClass1("A"), "describe", rows);
+            assertFalse("Batch has failures", result.hasFailures());
+            for(int i = 0; i < rows.length; i++){
+                assertEquals("Result out of order at " + i, "A number " + i, result.getResult(i));
+            }
+        }
+        finally{
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test that when the executor rejects part of a batch,
+     * the rejected part is invoked on the calling thread,
+     * and the whole batch is still recorded.
+     */
+    @Test
+    public void testRejectedExecution() throws Exception{
+        Object[][] rows = new Object[1000][];
+        for(int i = 0; i < rows.length; i++){
+            rows[i] = new Object[]{i};
+        }
+
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        final AtomicInteger submitted = new AtomicInteger();
+        Executor executor = command -> {
+            if(submitted.getAndIncrement() > 0){
+                throw new RejectedExecutionException("Saturated");
+            }
+            pool.execute(command);
+        };
+        try{
+            BatchResult result = FindAndInvoke.invokeForEachParallel(executor, new TestClass1("A"), "describe", rows);
+            assertTrue("Batch wasn't split", submitted.get() > 1);
+            assertFalse("Batch has failures", result.hasFailures());
+            for(int i = 0; i < rows.length; i++){
+                assertEquals("Result missing at " + i, "A number " + i, result.getResult(i));
+            }
+        }
+        finally{
+            pool.shutdown();
+        }
+    }
+
+    public static class TestClass1{
+
+        private final String prefix;
+
+        public TestClass1(String prefix){
+            this.prefix = prefix;
+        }
+
+        public String describe(String s){
+            if("fail".equals(prefix)){
+                throw new IllegalStateException("Failed");
+            }
+            return prefix + " " + s;
+        }
+
+        public String describe(Integer i){
+            return prefix + " number " + i;
+        }
+
+    }
+
+    public static class TestClass2{
+
+        public String describe(Object o){
+            return "TestClass2 " + o;
+        }
+
+    }
+
+}
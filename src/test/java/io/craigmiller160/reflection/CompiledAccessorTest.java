@@ -0,0 +1,196 @@
+package io.craigmiller160.reflection;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the generated accessors used by the
+ * compiled invocation mode.
+ */
+public class CompiledAccessorTest {
+
+    @After
+    public void after(){
+        FindAndInvoke.setCompileThreshold(-1);
+    }
+
+    /**
+     * Test generating accessors for instance methods
+     * with every supported number of parameters.
+     */
+    @Test
+    public void testInstanceMethods() throws Throwable{
+        TestClass target = new TestClass();
+        assertEquals("Wrong result for 0 params", "none", compile("none").invoke(target, new Object[0]));
+        assertEquals("Wrong result for 1 param", "A", compile("join", String.class).invoke(target, new Object[]{"A"}));
+        assertEquals("Wrong result for 4 params", "ABCD",
+                compile("join", String.class, String.class, String.class, String.class).invoke(target, new Object[]{"A", "B", "C", "D"}));
+    }
+
+    /**
+     * Test generating an accessor for a static method
+     * with primitive params and return type.
+     */
+    @Test
+    public void testStaticPrimitiveMethod() throws Throwable{
+        assertEquals("Wrong result", 5, compile("add", int.class, int.class).invoke(null, new Object[]{2, 3}));
+    }
+
+    /**
+     * Test that an accessor isn't generated for methods
+     * that can't be compiled.
+     */
+    @Test
+    public void testNotCompilable() throws Exception{
+        assertNull("Void method compiled", CompiledAccessor.create(TestClass.class.getMethod("doNothing")));
+        assertNull("Method with too many params compiled", CompiledAccessor.create(TestClass.class.getMethod("join",
+                String.class, String.class, String.class, String.class, String.class)));
+        assertNull("Method of non-public class compiled", CompiledAccessor.create(HiddenClass.class.getMethod("getValue")));
+    }
+
+    /**
+     * Test that a checked exception thrown through an
+     * accessor reaches the caller unwrapped.
+     */
+    @Test
+    public void testException() throws Throwable{
+        try{
+            compile("fail").invoke(new TestClass(), new Object[0]);
+            fail("No exception thrown");
+        }
+        catch(IOException ex){
+            assertEquals("Wrong exception message", "Failed", ex.getMessage());
+        }
+    }
+
+    /**
+     * Test that methods switch to the compiled accessor
+     * once they reach the compile threshold, while still
+     * producing the same results.
+     */
+    @Test
+    public void testCompileThreshold() throws Exception{
+        FindAndInvoke.setCompileThreshold(3);
+        MethodInvoker invoker = MethodInvoker.forMethod(TestClass.class.getMethod("count"));
+        TestClass target = new TestClass();
+        for(int i = 1; i <= 5; i++){
+            assertEquals("Wrong result for invocation " + i, i, FindAndInvoke.findAndInvokeMethod(target, "count"));
+        }
+        assertTrue("Method was not compiled", invoker.isCompiled());
+
+        try{
+            FindAndInvoke.findAndInvokeMethod(target, "fail");
+            FindAndInvoke.findAndInvokeMethod(target, "fail");
+            FindAndInvoke.findAndInvokeMethod(target, "fail");
+            FindAndInvoke.findAndInvokeMethod(target, "fail");
+            fail("No exception thrown");
+        }
+        catch(InvocationTargetException ex){
+            assertEquals("Wrong exception cause", IOException.class, ex.getCause().getClass());
+        }
+    }
+
+    /**
+     * Test that primitive params given as a wrapper that has
+     * to be widened still work after the method is compiled.
+     */
+    @Test
+    public void testWidenedArgsPastThreshold() throws Exception{
+        FindAndInvoke.setCompileThreshold(2);
+        MethodInvoker invoker = MethodInvoker.forMethod(TestClass.class.getMethod("toLong", long.class));
+        TestClass target = new TestClass();
+        for(int i = 0; i < 5; i++){
+            assertEquals("Wrong result for widened Integer " + i, 42L, FindAndInvoke.findAndInvokeMethod(target, "toLong", 42));
+            assertEquals("Wrong result for exact Long " + i, 7L, FindAndInvoke.findAndInvokeMethod(target, "toLong", 7L));
+        }
+        assertTrue("Method was not compiled", invoker.isCompiled());
+
+        FindAndInvoke.setCompileThreshold(0);
+        for(int i = 0; i < 3; i++){
+            assertEquals("Wrong result for widened Character " + i, 97, FindAndInvoke.findAndInvokeMethod(target, "toInt", 'a'));
+        }
+    }
+
+    /**
+     * Test that methods aren't compiled when compilation
+     * is disabled.
+     */
+    @Test
+    public void testCompileDisabled() throws Exception{
+        MethodInvoker invoker = MethodInvoker.forMethod(TestClass.class.getMethod("none"));
+        for(int i = 0; i < 10; i++){
+            FindAndInvoke.findAndInvokeMethod(new TestClass(), "none");
+        }
+        assertFalse("Method was compiled", invoker.isCompiled());
+    }
+
+    private static CompiledAccessor compile(String name, Class<?>...paramTypes) throws Exception{
+        CompiledAccessor accessor = CompiledAccessor.create(TestClass.class.getMethod(name, paramTypes));
+        assertNotNull("Accessor was not generated for " + name, accessor);
+        return accessor;
+    }
+
+    public static class TestClass{
+
+        private int count;
+
+        public String none(){
+            return "none";
+        }
+
+        public String join(String a){
+            return a;
+        }
+
+        public String join(String a, String b, String c, String d){
+            return a + b + c + d;
+        }
+
+        public String join(String a, String b, String c, String d, String e){
+            return a + b + c + d + e;
+        }
+
+        public static int add(int i1, int i2){
+            return i1 + i2;
+        }
+
+        public long toLong(long value){
+            return value;
+        }
+
+        public int toInt(int value){
+            return value;
+        }
+
+        public int count(){
+            return ++count;
+        }
+
+        public void doNothing(){}
+
+        public String fail() throws IOException{
+            throw new IOException("Failed");
+        }
+
+    }
+
+    static class HiddenClass{
+
+        public String getValue(){
+            return "value";
+        }
+
+    }
+
+}
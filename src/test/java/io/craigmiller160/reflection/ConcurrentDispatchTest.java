@@ -0,0 +1,189 @@
+package io.craigmiller160.reflection;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stress tests for dispatching and caching from many
+ * threads at once. Every thread waits on a latch, so
+ * they all start hitting the same keys together.
+ */
+public class ConcurrentDispatchTest {
+
+    private static final int THREADS = 32;
+
+    /**
+     * Test that when many threads resolve the same key
+     * for the first time at once, it is only resolved once.
+     */
+    @Test
+    public void testComputeOnce() throws Exception{
+        final ResolutionCache cache = new ResolutionCache(16);
+        final ResolutionKey key = new ResolutionKey(new Class<?>[]{String.class}, "method1", new Class<?>[0]);
+        final AtomicInteger resolutions = new AtomicInteger();
+
+        List<Resolution> results = runConcurrently(() -> cache.computeIfAbsent(key, k -> {
+            resolutions.incrementAndGet();
+            try{
+                Thread.sleep(20);
+            }
+            catch(InterruptedException ex){
+                Thread.currentThread().interrupt();
+            }
+            return Resolution.noMatch();
+        }));
+
+        assertEquals("Key was resolved more than once", 1, resolutions.get());
+        for(Resolution result : results){
+            assertSame("Threads got different resolutions", Resolution.noMatch(), result);
+        }
+    }
+
+    /**
+     * Test that a slow resolution of one key doesn't hold up
+     * resolving other keys.
+     */
+    @Test
+    public void testSlowResolutionDoesNotBlock() throws Exception{
+        final ResolutionCache cache = new ResolutionCache(16);
+        final ResolutionKey slowKey = new ResolutionKey(new Class<?>[]{String.class}, "slow", new Class<?>[0]);
+        final CountDownLatch resolving = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try{
+            Future<Resolution> slow = executor.submit(() -> cache.computeIfAbsent(slowKey, k -> {
+                resolving.countDown();
+                try{
+                    release.await();
+                }
+                catch(InterruptedException ex){
+                    Thread.currentThread().interrupt();
+                }
+                return Resolution.noMatch();
+            }));
+            assertTrue("Slow resolution never started", resolving.await(30, TimeUnit.SECONDS));
+
+            for(int i = 0; i < 64; i++){
+                ResolutionKey key = new ResolutionKey(new Class<?>[]{String.class}, "fast" + i, new Class<?>[0]);
+                assertSame("Wrong resolution", Resolution.noCandidates(), cache.computeIfAbsent(key, k -> Resolution.noCandidates()));
+            }
+
+            release.countDown();
+            assertSame("Wrong slow resolution", Resolution.noMatch(), slow.get(30, TimeUnit.SECONDS));
+        }
+        finally{
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that the cache stays within its maximum size,
+     * and counts every lookup, while many threads add and
+     * look up more keys than it can hold.
+     */
+    @Test
+    public void testConcurrentEviction() throws Exception{
+        final ResolutionCache cache = new ResolutionCache(64);
+        final int keysPerThread = 500;
+        final AtomicInteger threadIds = new AtomicInteger();
+
+        runConcurrently(() -> {
+            int id = threadIds.getAndIncrement();
+            for(int i = 0; i < keysPerThread; i++){
+                ResolutionKey key = new ResolutionKey(new Class<?>[]{String.class}, "method" + id + "_" + i, new Class<?>[0]);
+                if(cache.get(key) == null){
+                    cache.put(key, Resolution.noMatch());
+                }
+            }
+            return null;
+        });
+
+        assertTrue("Cache grew past its maximum size: " + cache.size(), cache.size() <= 64);
+        assertEquals("Lookups weren't all counted", THREADS * keysPerThread, cache.getHitCount() + cache.getMissCount());
+        assertTrue("Nothing was evicted", cache.getEvictionCount() > 0);
+    }
+
+    /**
+     * Test that invoking through FindAndInvoke from many threads
+     * at once always picks the right overload.
+     */
+    @Test
+    public void testConcurrentFindAndInvoke() throws Exception{
+        final TestClass target = new TestClass();
+        final int invocationsPerThread = 2000;
+
+        List<Integer> failures = runConcurrently(() -> {
+            int failed = 0;
+            for(int i = 0; i < invocationsPerThread; i++){
+                Object result = i % 2 == 0 ?
+                        FindAndInvoke.findAndInvokeMethod(target, "describe", "A") :
+                        FindAndInvoke.findAndInvokeMethod(target, "describe", i);
+                String expected = i % 2 == 0 ? "String: A" : "Integer: " + i;
+                if(!expected.equals(result)){
+                    failed++;
+                }
+            }
+            return failed;
+        });
+
+        for(Integer failed : failures){
+            assertEquals("Wrong overload invoked", 0, failed.intValue());
+        }
+    }
+
+    /**
+     * Run the task on every thread at once, and get all
+     * of their results.
+     */
+    private <T> List<T> runConcurrently(final Callable<T> task) throws Exception{
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try{
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for(int i = 0; i < THREADS; i++){
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+
+            List<T> results = new ArrayList<>();
+            for(Future<T> future : futures){
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        }
+        finally{
+            executor.shutdownNow();
+        }
+    }
+
+    public static class TestClass{
+
+        public String describe(String s){
+            return "String: " + s;
+        }
+
+        public String describe(Integer i){
+            return "Integer: " + i;
+        }
+
+    }
+
+}
@@ -0,0 +1,195 @@
+package io.craigmiller160.reflection;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DispatchStatisticsTest {
+
+    @After
+    public void tearDown(){
+        DispatchMetrics.disable();
+    }
+
+    /**
+     * Test that each stage of a dispatch is recorded.
+     */
+    @Test
+    public void testDispatchRecorded() throws Exception{
+        DispatchStatistics statistics = DispatchMetrics.enableStatistics();
+        assertSame("Statistics weren't installed", statistics, DispatchMetrics.getListener());
+
+        TestClass target = new TestClass();
+        FindAndInvoke.findAndInvokeMethod(target, "join", "One", "Two");
+        FindAndInvoke.findAndInvokeMethod(target, "join", "One", "Two");
+
+        assertEquals("Wrong resolution count", 2, statistics.getResolutionCount());
+        assertEquals("Wrong invocation count", 2, statistics.getInvocationCount());
+        assertEquals("Wrong conversion count", 2, statistics.getConversionCount());
+        assertEquals("Wrong call count", Long.valueOf(2), statistics.getCallCountsByMethod().get("join"));
+        assertTrue("Validation wasn't recorded", statistics.getValidationCount() <= 1);
+        assertEquals("Wrong lookup failure count", 0, statistics.getLookupFailureCount());
+    }
+
+    /**
+     * Test that the number of method names with their own
+     * call count is capped, with the rest counted together.
+     */
+    @Test
+    public void testCallCountsCapped(){
+        DispatchStatistics statistics = new DispatchStatistics();
+        for(int i = 0; i < DispatchStatistics.MAX_TRACKED_METHODS + 10; i++){
+            statistics.onResolution("method" + i, false, true, 0L);
+        }
+
+        Map<String,Long> counts = statistics.getCallCountsByMethod();
+        assertEquals("Wrong number of tracked names", DispatchStatistics.MAX_TRACKED_METHODS + 1, counts.size());
+        assertEquals("Wrong count for other methods", Long.valueOf(10), counts.get(DispatchStatistics.OTHER_METHODS));
+    }
+
+    /**
+     * Test that failed lookups and failed invocations
+     * are counted.
+     */
+    @Test
+    public void testFailuresRecorded() throws Exception{
+        DispatchStatistics statistics = DispatchMetrics.enableStatistics();
+
+        TestClass target = new TestClass();
+        try{
+            FindAndInvoke.findAndInvokeMethod(target, "join", 1, 2);
+            fail("No exception thrown for invalid arguments");
+        }
+        catch(NoSuchMethodException ex){
+            //Expected
+        }
+
+        try{
+            FindAndInvoke.findAndInvokeMethod(target, "fail");
+            fail("No exception thrown by method");
+        }
+        catch(IllegalStateException ex){
+            //Expected
+        }
+
+        assertEquals("Wrong lookup failure count", 1, statistics.getLookupFailureCount());
+        assertEquals("Wrong invocation failure count", 1, statistics.getInvocationFailureCount());
+
+        statistics.reset();
+        assertEquals("Statistics weren't reset", 0, statistics.getResolutionCount());
+    }
+
+    /**
+     * Test that nothing is recorded once
+     * metrics are disabled.
+     */
+    @Test
+    public void testDisabled() throws Exception{
+        DispatchStatistics statistics = DispatchMetrics.enableStatistics();
+        DispatchMetrics.disable();
+        assertNull("Listener wasn't removed", DispatchMetrics.getListener());
+
+        FindAndInvoke.findAndInvokeMethod(new TestClass(), "join", "One", "Two");
+        assertEquals("Resolution recorded while disabled", 0, statistics.getResolutionCount());
+    }
+
+    /**
+     * Test that a listener can dispatch the same method again from
+     * onValidation(), since it is only told once the resolution
+     * has been cached.
+     */
+    @Test
+    public void testListenerReentersDispatch() throws Exception{
+        final TestClass target = new TestClass();
+        final Object[] reentered = new Object[1];
+        DispatchMetrics.setListener(new DispatchListener() {
+            @Override
+            public void onValidation(String methodName, int candidatesExamined, long nanos){
+                if(reentered[0] == null){
+                    try{
+                        reentered[0] = FindAndInvoke.findAndInvokeMethod(target, "repeat", "Three", 2);
+                    }
+                    catch(ReflectiveOperationException ex){
+                        throw new IllegalStateException(ex);
+                    }
+                }
+            }
+        });
+
+        Object result = FindAndInvoke.findAndInvokeMethod(target, "repeat", "Three", 2);
+        assertEquals("Wrong result", "ThreeThree", result);
+        assertEquals("Wrong result from the listener", "ThreeThree", reentered[0]);
+    }
+
+    /**
+     * Test publishing the statistics over JMX.
+     */
+    @Test
+    public void testRegisterMBean() throws Exception{
+        DispatchStatistics statistics = DispatchMetrics.enableStatistics();
+        FindAndInvoke.findAndInvokeMethod(new TestClass(), "join", "One", "Two");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(DispatchStatistics.OBJECT_NAME);
+        statistics.registerMBean();
+        try{
+            assertEquals("Wrong resolution count over JMX", 1L, server.getAttribute(name, "ResolutionCount"));
+        }
+        finally{
+            statistics.unregisterMBean();
+        }
+        assertFalse("MBean wasn't unregistered", server.isRegistered(name));
+    }
+
+    /**
+     * Test the approximate percentiles of
+     * the latency histogram.
+     */
+    @Test
+    public void testLatencyHistogram(){
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals("Empty histogram has a percentile", 0, histogram.getPercentileNanos(50));
+
+        for(int i = 0; i < 99; i++){
+            histogram.record(100);
+        }
+        histogram.record(10000);
+
+        assertEquals("Wrong count", 100, histogram.getCount());
+        assertEquals("Wrong mean", 199, histogram.getMeanNanos(), 0.001);
+        assertEquals("Wrong median", 127, histogram.getPercentileNanos(50));
+        assertEquals("Wrong maximum", 16383, histogram.getPercentileNanos(100));
+    }
+
+    public static class TestClass{
+
+        public String join(String first, String...rest){
+            return first + rest.length;
+        }
+
+        public String repeat(String value, Integer times){
+            StringBuilder builder = new StringBuilder();
+            for(int i = 0; i < times; i++){
+                builder.append(value);
+            }
+            return builder.toString();
+        }
+
+        public void fail(){
+            throw new IllegalStateException("Failed");
+        }
+
+    }
+
+}
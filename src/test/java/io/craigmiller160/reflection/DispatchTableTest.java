@@ -0,0 +1,94 @@
+package io.craigmiller160.reflection;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DispatchTableTest {
+
+    /**
+     * Test dispatching to methods on
+     * each of the targets.
+     */
+    @Test
+    public void testDispatch() throws Exception{
+        DispatchTable table = new DispatchTable(new TestClass1(), new TestClass2());
+        assertEquals("Result value is wrong", "One Two", table.invoke("method1", "One", "Two"));
+        assertEquals("Result value is wrong", "One 2", table.invoke("method2", "One", 2));
+    }
+
+    /**
+     * Test that the same method is dispatched to
+     * as FindAndInvoke would pick, when several targets
+     * have a matching method.
+     */
+    @Test
+    public void testDispatchMatchesFindAndInvoke() throws Exception{
+        Object[] targets = new Object[]{new TestClass2(), new TestClass3()};
+        DispatchTable table = new DispatchTable(Arrays.asList(targets));
+        for(int i = 0; i < 2; i++){
+            assertEquals("Wrong method dispatched to", FindAndInvoke.findAndInvokeMethod(targets, "method2", "One", 2),
+                    table.invoke("method2", "One", 2));
+            assertEquals("Wrong method dispatched to", FindAndInvoke.findAndInvokeMethod(targets, "method2", "One", "Two"),
+                    table.invoke("method2", "One", "Two"));
+        }
+    }
+
+    /**
+     * Test dispatching a method that doesn't exist.
+     */
+    @Test(expected = NoSuchMethodException.class)
+    public void testNoSuchMethod() throws Exception{
+        DispatchTable table = new DispatchTable(new TestClass1(), new TestClass2());
+        assertFalse("Table has a method it shouldn't", table.hasMethod("method3"));
+        table.invoke("method3", "One");
+    }
+
+    /**
+     * Test dispatching a method that exists, but
+     * not with matching params.
+     */
+    @Test(expected = NoSuchMethodException.class)
+    public void testNoMatchingMethod() throws Exception{
+        DispatchTable table = new DispatchTable(new TestClass1(), new TestClass2());
+        assertTrue("Table is missing a method", table.hasMethod("method1"));
+        table.invoke("method1", 1, 2);
+    }
+
+    /**
+     * Test that null targets aren't allowed.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullTarget(){
+        new DispatchTable(new TestClass1(), null);
+    }
+
+    public static class TestClass1{
+
+        public String method1(String s1, String s2){
+            return s1 + " " + s2;
+        }
+
+    }
+
+    public static class TestClass2{
+
+        public String method2(String s1, Integer i1){
+            return s1 + " " + i1;
+        }
+
+    }
+
+    public static class TestClass3{
+
+        public String method2(String s1, Object o1){
+            return "TestClass3 " + s1 + " " + o1;
+        }
+
+    }
+
+}
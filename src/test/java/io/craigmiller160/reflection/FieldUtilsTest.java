@@ -0,0 +1,137 @@
+package io.craigmiller160.reflection;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for finding and accessing fields.
+ */
+public class FieldUtilsTest {
+
+    /**
+     * Test reading and writing a field as an Object.
+     */
+    @Test
+    public void testGetAndSet() throws Exception{
+        TestClass target = new TestClass();
+        assertEquals("Wrong initial value", "Initial", FieldUtils.getField(target, "name"));
+        FieldUtils.setField(target, "name", "Changed");
+        assertEquals("Value wasn't set", "Changed", target.name);
+        assertEquals("Wrong boxed primitive value", 1, FieldUtils.getField(target, "count"));
+        FieldUtils.setField(target, "count", 5);
+        assertEquals("Primitive value wasn't set", 5, target.count);
+    }
+
+    /**
+     * Test reading and writing fields through the
+     * typed primitive methods.
+     */
+    @Test
+    public void testPrimitives() throws Exception{
+        TestClass target = new TestClass();
+        FieldUtils.setInt(target, "count", 10);
+        assertEquals("Wrong int value", 10, FieldUtils.getInt(target, "count"));
+        FieldUtils.setLong(target, "total", 20L);
+        assertEquals("Wrong long value", 20L, FieldUtils.getLong(target, "total"));
+        FieldUtils.setDouble(target, "ratio", 0.5);
+        assertEquals("Wrong double value", 0.5, FieldUtils.getDouble(target, "ratio"), 0.0);
+        FieldUtils.setBoolean(target, "enabled", true);
+        assertTrue("Wrong boolean value", FieldUtils.getBoolean(target, "enabled"));
+        assertEquals("Int field wasn't widened to long", 10L, FieldUtils.getLong(target, "count"));
+    }
+
+    /**
+     * Test finding a field on the first of
+     * several objects that has it.
+     */
+    @Test
+    public void testMultipleTargets() throws Exception{
+        Object[] targets = {"Not a TestClass", new TestClass()};
+        assertEquals("Wrong value", "Initial", FieldUtils.getField(targets, "name"));
+        FieldUtils.setField(targets, "name", "Changed");
+        assertEquals("Value wasn't set", "Changed", ((TestClass) targets[1]).name);
+    }
+
+    /**
+     * Test accessing a static field.
+     */
+    @Test
+    public void testStaticField() throws Exception{
+        FieldUtils.setInt(new TestClass(), "shared", 3);
+        assertEquals("Static value wasn't set", 3, TestClass.shared);
+        assertEquals("Wrong static value", 3, FieldUtils.getField(new TestClass(), "shared"));
+    }
+
+    /**
+     * Test the exceptions for missing fields, final
+     * fields, values of the wrong type, and null values
+     * for primitive fields.
+     */
+    @Test
+    public void testErrors() throws Exception{
+        try{
+            FieldUtils.getField(new TestClass(), "noSuchField");
+            fail("No exception thrown for missing field");
+        }
+        catch(NoSuchFieldException ex){
+            //Expected
+        }
+
+        try{
+            FieldUtils.setField(new TestClass(), "constant", "Changed");
+            fail("No exception thrown for final field");
+        }
+        catch(IllegalAccessException ex){
+            //Expected
+        }
+
+        try{
+            FieldUtils.setField(new TestClass(), "name", 1);
+            fail("No exception thrown for wrong value type");
+        }
+        catch(IllegalArgumentException ex){
+            //Expected
+        }
+
+        try{
+            FieldUtils.setField(new TestClass(), "count", null);
+            fail("No exception thrown for null primitive value");
+        }
+        catch(IllegalArgumentException ex){
+            //Expected
+        }
+
+        try{
+            FieldUtils.setField(new Object[]{new TestClass()}, "count", null);
+            fail("No exception thrown for null primitive value on multiple targets");
+        }
+        catch(IllegalArgumentException ex){
+            //Expected
+        }
+
+        try{
+            FieldUtils.getInt(new TestClass(), "name");
+            fail("No exception thrown for wrong field type");
+        }
+        catch(IllegalArgumentException ex){
+            //Expected
+        }
+    }
+
+    public static class TestClass{
+
+        public static int shared;
+
+        public final String constant = "Constant";
+        public String name = "Initial";
+        public int count = 1;
+        public long total;
+        public double ratio;
+        public boolean enabled;
+
+    }
+
+}
@@ -0,0 +1,145 @@
+package io.craigmiller160.reflection;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.AbstractList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for finding and calling constructors.
+ */
+public class FindAndConstructTest {
+
+    /**
+     * Test constructing objects with the constructor
+     * that matches the arguments.
+     */
+    @Test
+    public void testFindAndConstruct() throws Exception{
+        assertEquals("Wrong constructor used", "Empty", FindAndConstruct.findAndConstruct(TestClass.class).value);
+        assertEquals("Wrong constructor used", "String: A", FindAndConstruct.findAndConstruct(TestClass.class, "A").value);
+        assertEquals("Wrong constructor used", "Primitive: 5", FindAndConstruct.findAndConstruct(TestClass.class, 5).value);
+        assertEquals("Wrong constructor used on repeat", "String: B", FindAndConstruct.findAndConstruct(TestClass.class, "B").value);
+    }
+
+    /**
+     * Test constructing objects with a varArgs
+     * constructor.
+     */
+    @Test
+    public void testVarArgs() throws Exception{
+        assertEquals("Wrong packed result", "VarArgs: A 2", FindAndConstruct.findAndConstruct(TestClass.class, 'A', 1.0, 2.0).value);
+        assertEquals("Wrong empty result", "VarArgs: C 0", FindAndConstruct.findAndConstruct(TestClass.class, 'C').value);
+        assertEquals("Wrong array result", "VarArgs: B 1", FindAndConstruct.findAndConstruct(TestClass.class, 'B', new double[]{1.0}).value);
+    }
+
+    /**
+     * Test the exceptions for constructors that don't
+     * match or can't be called.
+     */
+    @Test
+    public void testErrors() throws Exception{
+        try{
+            FindAndConstruct.findAndConstruct(TestClass.class, 1.5);
+            fail("No exception thrown for no match");
+        }
+        catch(NoSuchMethodException ex){
+            assertTrue("Wrong exception message", ex.getMessage().startsWith("No matching constructor found"));
+        }
+
+        try{
+            FindAndConstruct.findAndConstruct(AbstractList.class);
+            fail("No exception thrown for abstract class");
+        }
+        catch(InstantiationException ex){
+            //Expected
+        }
+
+        try{
+            FindAndConstruct.findAndConstruct(TestClass.class, true);
+            fail("No exception thrown by constructor");
+        }
+        catch(InvocationTargetException ex){
+            assertTrue("Wrong exception cause", ex.getCause() instanceof IOException);
+        }
+    }
+
+    /**
+     * Test finding a constructor without calling it.
+     */
+    @Test
+    public void testFindConstructor() throws Exception{
+        assertEquals("Wrong constructor found", TestClass.class.getConstructor(String.class),
+                FindAndConstruct.findConstructor(TestClass.class, "A"));
+    }
+
+    /**
+     * Test that matches for argument classes that have
+     * been collected are purged from the cache.
+     */
+    @Test
+    public void testCollectedArgClassPurged() throws Exception{
+        constructWithPluginArg();
+        ConstructorIndex index = ConstructorIndex.forClass(Holder.class);
+        assertEquals("Plugin match not cached", 1, index.getCachedCount());
+
+        for(int i = 0; i < 50 && index.getCachedCount() > 0; i++){
+            System.gc();
+            Thread.sleep(20);
+            index.purgeCollected();
+        }
+        assertEquals("Collected match wasn't purged", 0, index.getCachedCount());
+    }
+
+    private void constructWithPluginArg() throws Exception{
+        URL testClasses = FindAndConstructTest.class.getProtectionDomain().getCodeSource().getLocation();
+        try(URLClassLoader loader = new URLClassLoader(new URL[]{testClasses}, null)){
+            Object plugin = loader.loadClass(Plugin.class.getName()).getDeclaredConstructor().newInstance();
+            FindAndConstruct.findAndConstruct(Holder.class, plugin);
+        }
+    }
+
+    public static class TestClass{
+
+        private final String value;
+
+        public TestClass(){
+            this.value = "Empty";
+        }
+
+        public TestClass(String s){
+            this.value = "String: " + s;
+        }
+
+        public TestClass(int i){
+            this.value = "Primitive: " + i;
+        }
+
+        public TestClass(char c, double...values){
+            this.value = "VarArgs: " + c + " " + values.length;
+        }
+
+        public TestClass(Boolean fail) throws IOException{
+            throw new IOException("Failed");
+        }
+
+    }
+
+    public static class Holder{
+
+        public Holder(Object value){}
+
+    }
+
+    public static class Plugin{
+
+    }
+
+}
@@ -0,0 +1,161 @@
+package io.craigmiller160.reflection;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the invokedynamic bootstrap method. The call
+ * sites are invoked through their dynamic invokers, which
+ * behave the same as an invokedynamic instruction linked
+ * to them.
+ */
+public class FindAndInvokeBootstrapTest {
+
+    /**
+     * Test that a call site invokes the matching method,
+     * and links itself to it.
+     */
+    @Test
+    public void testLink() throws Throwable{
+        CallSite site = bootstrap("handle", MethodType.methodType(Object.class, Object.class, Object.class));
+        MethodHandle unlinked = site.getTarget();
+        MethodHandle invoker = site.dynamicInvoker();
+        assertEquals("Wrong result", "String: A", invoker.invoke(new Handler(), "A"));
+        assertNotSame("Call site was not linked", unlinked, site.getTarget());
+
+        MethodHandle linked = site.getTarget();
+        assertEquals("Wrong result on repeat", "String: B", invoker.invoke(new Handler(), "B"));
+        assertSame("Call site was relinked for the same classes", linked, site.getTarget());
+    }
+
+    /**
+     * Test that a call site relinks itself for new
+     * argument classes, and still invokes the right
+     * method for the classes it linked before.
+     */
+    @Test
+    public void testRelink() throws Throwable{
+        CallSite site = bootstrap("handle", MethodType.methodType(Object.class, Object.class, Object.class));
+        MethodHandle invoker = site.dynamicInvoker();
+        Handler handler = new Handler();
+        assertEquals("Wrong String result", "String: A", invoker.invoke(handler, "A"));
+        assertEquals("Wrong Integer result", "Integer: 1", invoker.invoke(handler, 1));
+        assertEquals("Wrong String result after relink", "String: B", invoker.invoke(handler, "B"));
+        assertEquals("Wrong Integer result after relink", "Integer: 2", invoker.invoke(handler, 2));
+    }
+
+    /**
+     * Test that a call site with specific and primitive
+     * types links correctly.
+     */
+    @Test
+    public void testTypedCallSite() throws Throwable{
+        CallSite site = bootstrap("add", MethodType.methodType(int.class, Handler.class, int.class, int.class));
+        MethodHandle invoker = site.dynamicInvoker();
+        assertEquals("Wrong result", 5, (int) invoker.invokeExact(new Handler(), 2, 3));
+        assertEquals("Wrong result on repeat", 9, (int) invoker.invokeExact(new Handler(), 4, 5));
+    }
+
+    /**
+     * Test that varArgs are packed into an array, and that
+     * an array that is already provided is passed through.
+     */
+    @Test
+    public void testVarArgs() throws Throwable{
+        CallSite packed = bootstrap("join", MethodType.methodType(Object.class, Object.class, Object.class, Object.class, Object.class));
+        assertEquals("Wrong packed result", "A[1, 2]", packed.dynamicInvoker().invoke(new Handler(), "A", 1, 2));
+        assertEquals("Wrong packed result on repeat", "B[3, 4]", packed.dynamicInvoker().invoke(new Handler(), "B", 3, 4));
+
+        CallSite array = bootstrap("join", MethodType.methodType(Object.class, Object.class, Object.class, Object.class));
+        assertEquals("Wrong array result", "A[1, 2]", array.dynamicInvoker().invoke(new Handler(), "A", new Integer[]{1, 2}));
+        assertEquals("Wrong array result on repeat", "B[3]", array.dynamicInvoker().invoke(new Handler(), "B", new Integer[]{3}));
+    }
+
+    /**
+     * Test that checked exceptions are thrown
+     * directly from the call site.
+     */
+    @Test
+    public void testException() throws Throwable{
+        CallSite site = bootstrap("fail", MethodType.methodType(void.class, Object.class));
+        for(int i = 0; i < 2; i++){
+            try{
+                site.dynamicInvoker().invoke(new Handler());
+                fail("No exception thrown");
+            }
+            catch(IOException ex){
+                assertEquals("Wrong exception message", "Failed", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Test that a call site throws an exception
+     * when no method matches.
+     */
+    @Test(expected = NoSuchMethodException.class)
+    public void testNoMatch() throws Throwable{
+        bootstrap("handle", MethodType.methodType(Object.class, Object.class, Object.class))
+                .dynamicInvoker().invoke(new Handler(), 1.5);
+    }
+
+    /**
+     * Test that a call site keeps invoking the right
+     * methods after it has seen too many classes to link.
+     */
+    @Test
+    public void testMegamorphic() throws Throwable{
+        CallSite site = bootstrap("describe", MethodType.methodType(Object.class, Object.class, Object.class));
+        MethodHandle invoker = site.dynamicInvoker();
+        Object[] args = {"A", 1, 2L, 3.0, 4.0f, (short) 5, (byte) 6, 'c', true, new Object()};
+        for(int round = 0; round < 2; round++){
+            for(Object arg : args){
+                assertEquals("Wrong result for " + arg, "Object: " + arg, invoker.invoke(new Handler(), arg));
+            }
+        }
+    }
+
+    private static CallSite bootstrap(String name, MethodType type){
+        return FindAndInvokeBootstrap.bootstrap(MethodHandles.lookup(), name, type);
+    }
+
+    public static class Handler{
+
+        public String handle(String s){
+            return "String: " + s;
+        }
+
+        public String handle(Integer i){
+            return "Integer: " + i;
+        }
+
+        public int add(int i1, int i2){
+            return i1 + i2;
+        }
+
+        public String join(String s, Integer...nums){
+            return s + Arrays.toString(nums);
+        }
+
+        public String describe(Object o){
+            return "Object: " + o;
+        }
+
+        public void fail() throws IOException{
+            throw new IOException("Failed");
+        }
+
+    }
+
+}
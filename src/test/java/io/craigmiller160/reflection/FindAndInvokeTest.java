@@ -2,8 +2,19 @@ package io.craigmiller160.reflection;
 
 import org.junit.Test;
 
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Created by Craig on 2/14/2016.
@@ -19,6 +30,321 @@ public class FindAndInvokeTest {
         assertEquals("Result value is wrong", result, "One Two");
     }
 
+    /**
+     * Test finding and invoking a method with primitive
+     * params, using boxed arguments.
+     */
+    @Test
+    public void testFindAndInvokePrimitives() throws Exception{
+        assertEquals("Result value is wrong", 3.5, FindAndInvoke.findAndInvokeMethod(new PrimitiveClass(), "add", 1, 2.5));
+        assertEquals("Result value is wrong", 3.0, FindAndInvoke.findAndInvokeMethod(new PrimitiveClass(), "add", 1, 2));
+        assertEquals("Result value is wrong", "Sum 6", FindAndInvoke.findAndInvokeMethod(new PrimitiveClass(), "sum", "Sum", 1, 2, 3));
+    }
+
+    /**
+     * Test finding and invoking a varArgs method.
+     */
+    @Test
+    public void testFindAndInvokeVarArgs() throws Exception{
+        Object result = FindAndInvoke.findAndInvokeMethod(new VarArgsClass(), "join", "-", "One", "Two", "Three");
+        assertEquals("Result value is wrong", "One-Two-Three", result);
+    }
+
+    /**
+     * Test that invoking the same method with the
+     * same argument types a second time uses the
+     * cached resolution.
+     */
+    @Test
+    public void testRepeatInvocationUsesCache() throws Exception{
+        TestClass2 target = new TestClass2();
+        FindAndInvoke.findAndInvokeMethod(target, "method2", "One", 1);
+
+        long hits = FindAndInvoke.getResolutionCache().getHitCount();
+        Object result = FindAndInvoke.findAndInvokeMethod(target, "method2", "Two", 2);
+        assertEquals("Result value is wrong", "Two 2", result);
+        assertEquals("Cached resolution wasn't used", hits + 1, FindAndInvoke.getResolutionCache().getHitCount());
+    }
+
+    /**
+     * Test that a failed resolution is cached, and
+     * still results in the same exception.
+     */
+    @Test
+    public void testRepeatMissStillThrows() throws Exception{
+        Object[] objects = getObjects();
+        for(int i = 0; i < 2; i++){
+            try{
+                FindAndInvoke.findAndInvokeMethod(objects, "method1", 1, 2);
+                fail("No exception thrown for invalid arguments");
+            }
+            catch(NoSuchMethodException ex){
+                assertTrue("Wrong exception message", ex.getMessage().startsWith("No matching method found"));
+            }
+        }
+
+        for(int i = 0; i < 2; i++){
+            try{
+                FindAndInvoke.findAndInvokeMethod(objects, "noSuchMethod", "One");
+                fail("No exception thrown for missing method");
+            }
+            catch(NoSuchMethodException ex){
+                assertTrue("Wrong exception message", ex.getMessage().startsWith("No methods exist"));
+            }
+        }
+    }
+
+    /**
+     * Test that a RuntimeException thrown by the
+     * invoked method is thrown directly.
+     */
+    @Test
+    public void testRuntimeExceptionUnwrapped() throws Exception{
+        try{
+            FindAndInvoke.findAndInvokeMethod(new ExceptionClass(), "throwRuntime", "Message");
+            fail("No exception thrown");
+        }
+        catch(IllegalStateException ex){
+            assertEquals("Wrong exception message", "Message", ex.getMessage());
+        }
+    }
+
+    /**
+     * Test that a checked exception thrown by the
+     * invoked method is wrapped in an InvocationTargetException.
+     */
+    @Test
+    public void testCheckedExceptionWrapped() throws Exception{
+        try{
+            FindAndInvoke.findAndInvokeMethod(new ExceptionClass(), "throwChecked", "Message");
+            fail("No exception thrown");
+        }
+        catch(InvocationTargetException ex){
+            assertTrue("Wrong exception cause", ex.getCause() instanceof IOException);
+            assertEquals("Wrong exception message", "Message", ex.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Test that invoking a void method returns null.
+     */
+    @Test
+    public void testVoidMethodReturnsNull() throws Exception{
+        assertNull("Void method returned a value", FindAndInvoke.findAndInvokeMethod(new ExceptionClass(), "doNothing"));
+    }
+
+    /**
+     * Test finding and invoking a method asynchronously
+     * on each of the kinds of targets.
+     */
+    @Test
+    public void testFindAndInvokeAsync() throws Exception{
+        Object[] objects = getObjects();
+        assertEquals("Result value is wrong", "One Two",
+                FindAndInvoke.findAndInvokeMethodAsync(objects[0], "method1", "One", "Two").get());
+        assertEquals("Result value is wrong", "One 2",
+                FindAndInvoke.findAndInvokeMethodAsync(objects, "method2", "One", 2).get());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try{
+            assertEquals("Result value is wrong", "One Two",
+                    FindAndInvoke.findAndInvokeMethodAsync(executor, Arrays.asList(objects), "method1", "One", "Two").get());
+        }
+        finally{
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test that an asynchronous invocation completes with
+     * the same exceptions as findAndInvokeMethod() throws.
+     */
+    @Test
+    public void testFindAndInvokeAsyncExceptions() throws Exception{
+        try{
+            FindAndInvoke.findAndInvokeMethodAsync(new ExceptionClass(), "throwRuntime", "Message").get();
+            fail("No exception thrown");
+        }
+        catch(ExecutionException ex){
+            assertTrue("Wrong exception cause", ex.getCause() instanceof IllegalStateException);
+        }
+
+        try{
+            FindAndInvoke.findAndInvokeMethodAsync(new ExceptionClass(), "throwChecked", "Message").get();
+            fail("No exception thrown");
+        }
+        catch(ExecutionException ex){
+            assertTrue("Wrong exception cause", ex.getCause() instanceof InvocationTargetException);
+            assertTrue("Wrong exception cause", ex.getCause().getCause() instanceof IOException);
+        }
+
+        try{
+            FindAndInvoke.findAndInvokeMethodAsync(new ExceptionClass(), "noSuchMethod").get();
+            fail("No exception thrown");
+        }
+        catch(ExecutionException ex){
+            assertTrue("Wrong exception cause", ex.getCause() instanceof NoSuchMethodException);
+        }
+    }
+
+    /**
+     * Test the non-throwing variant when a
+     * method matches.
+     */
+    @Test
+    public void testTryFindAndInvokeMatch() throws Exception{
+        InvocationResult result = FindAndInvoke.tryFindAndInvokeMethod(getObjects(), "method1", "One", "Two");
+        assertTrue("Result should be a match", result.isMatched());
+        assertEquals("Result value is wrong", "One Two", result.getValue());
+        assertNull("Match should have no diagnostics", result.getDiagnostics());
+    }
+
+    /**
+     * Test that the non-throwing variant returns a miss,
+     * with the same diagnostics as the exception that
+     * findAndInvokeMethod() throws.
+     */
+    @Test
+    public void testTryFindAndInvokeMiss() throws Exception{
+        Object[] objects = getObjects();
+        for(int i = 0; i < 2; i++){
+            InvocationResult result = FindAndInvoke.tryFindAndInvokeMethod(objects, "method1", 1, 2);
+            assertTrue("Result should be a miss", result.isMissed());
+            assertEquals("Wrong fallback value", "Other", result.getValueOrElse("Other"));
+            assertTrue("Wrong diagnostics", result.getDiagnostics().startsWith("No matching method found"));
+        }
+
+        InvocationResult result = FindAndInvoke.tryFindAndInvokeMethod(objects, "noSuchMethod", "One");
+        assertTrue("Result should be a miss", result.isMissed());
+        assertTrue("Wrong exception message", result.toException().getMessage().startsWith("No methods exist"));
+
+        try{
+            result.getValue();
+            fail("No exception thrown for value of a miss");
+        }
+        catch(IllegalStateException ex){
+            //Expected
+        }
+    }
+
+    /**
+     * Test that a miss from each overload of the non-throwing
+     * variant has the same message as the exception the matching
+     * overload of findAndInvokeMethod() throws.
+     */
+    @Test
+    public void testTryFindAndInvokeMissMessages() throws Exception{
+        Object single = new TestClass1();
+        Object[] multiple = getObjects();
+        String[] methodSigs = {"method1", "noSuchMethod"};
+        for(String methodSig : methodSigs){
+            try{
+                FindAndInvoke.findAndInvokeMethod(single, methodSig, 1, 2);
+                fail("No exception thrown for single object: " + methodSig);
+            }
+            catch(NoSuchMethodException ex){
+                InvocationResult result = FindAndInvoke.tryFindAndInvokeMethod(single, methodSig, 1, 2);
+                assertEquals("Wrong single object message", ex.getMessage(), result.toException().getMessage());
+            }
+
+            try{
+                FindAndInvoke.findAndInvokeMethod(multiple, methodSig, 1, 2);
+                fail("No exception thrown for multiple objects: " + methodSig);
+            }
+            catch(NoSuchMethodException ex){
+                InvocationResult result = FindAndInvoke.tryFindAndInvokeMethod(multiple, methodSig, 1, 2);
+                assertEquals("Wrong multiple object message", ex.getMessage(), result.toException().getMessage());
+            }
+        }
+    }
+
+    /**
+     * Test finding and invoking methods by
+     * their full signatures.
+     */
+    @Test
+    public void testFindAndInvokeFullSignature() throws Exception{
+        assertEquals("Result value is wrong", "Sum 6",
+                FindAndInvoke.findAndInvokeMethod(new PrimitiveClass(), "sum(java.lang.String, int...)", "Sum", 1, 2, 3));
+        assertEquals("Result value is wrong", "One-Two",
+                FindAndInvoke.findAndInvokeMethod(new VarArgsClass(), "join(java.lang.String,java.lang.String[])", "-", "One", "Two"));
+        assertEquals("Result value is wrong", "One Two",
+                FindAndInvoke.findAndInvokeMethod(getObjects(), "method1(java.lang.String,java.lang.String)", "One", "Two"));
+    }
+
+    /**
+     * Test that a full signature that doesn't exist
+     * throws an exception.
+     */
+    @Test
+    public void testFindAndInvokeFullSignatureMissing() throws Exception{
+        try{
+            FindAndInvoke.findAndInvokeMethod(getObjects(), "method1(java.lang.String)", "One");
+            fail("No exception thrown for missing signature");
+        }
+        catch(NoSuchMethodException ex){
+            assertTrue("Wrong exception message", ex.getMessage().startsWith("No matching method found"));
+        }
+
+        try{
+            FindAndInvoke.findAndInvokeMethod(getObjects(), "noSuchMethod(java.lang.String)", "One");
+            fail("No exception thrown for missing method");
+        }
+        catch(NoSuchMethodException ex){
+            assertTrue("Wrong exception message", ex.getMessage().startsWith("No methods exist"));
+        }
+    }
+
+    /**
+     * Test that a full signature with the wrong number or
+     * types of arguments doesn't match, rather than failing
+     * when it is invoked.
+     */
+    @Test
+    public void testFindAndInvokeFullSignatureInvalidArgs() throws Exception{
+        Object[][] invalidArgs = {{5}, {}, {"Sum", "One"}, {"Sum", 1.5}};
+        for(Object[] args : invalidArgs){
+            try{
+                FindAndInvoke.findAndInvokeMethod(new PrimitiveClass(), "sum(java.lang.String,int...)", args);
+                fail("No exception thrown for args " + Arrays.toString(args));
+            }
+            catch(NoSuchMethodException ex){
+                assertTrue("Wrong exception message", ex.getMessage().startsWith("No matching method found"));
+            }
+        }
+
+        try{
+            FindAndInvoke.findAndInvokeMethod(getObjects(), "method1(java.lang.String,java.lang.String)", "One", "Two", "Three");
+            fail("No exception thrown for too many args");
+        }
+        catch(NoSuchMethodException ex){
+            assertTrue("Wrong exception message", ex.getMessage().startsWith("No matching method found"));
+        }
+
+        InvocationResult result = FindAndInvoke.tryFindAndInvokeMethod(getObjects(), "method1(java.lang.String,java.lang.String)", "One", 42);
+        assertTrue("Result should be a miss", result.isMissed());
+    }
+
+    /**
+     * Test that a full signature accepts null for
+     * any param that isn't primitive.
+     */
+    @Test
+    public void testFindAndInvokeFullSignatureNulls() throws Exception{
+        assertEquals("Result value is wrong", "One null",
+                FindAndInvoke.findAndInvokeMethod(getObjects(), "method1(java.lang.String,java.lang.String)", "One", null));
+        assertEquals("Result value is wrong", "null 3",
+                FindAndInvoke.findAndInvokeMethod(new PrimitiveClass(), "sum(java.lang.String,int...)", null, 1, 2));
+
+        try{
+            FindAndInvoke.findAndInvokeMethod(new PrimitiveClass(), "sum(java.lang.String,int...)", "Sum", null);
+            fail("No exception thrown for null primitive");
+        }
+        catch(NoSuchMethodException ex){
+            //Expected
+        }
+    }
+
     /**
      * Utility method for getting
      * the group of objects to
@@ -35,6 +361,57 @@ public class FindAndInvokeTest {
         return arr;
     }
 
+    /**
+     * Test warming up the named methods of
+     * several classes.
+     */
+    @Test
+    public void testWarmUp() throws Exception{
+        WarmUpResult result = FindAndInvoke.warmUp(Arrays.asList(TestClass1.class, PrimitiveClass.class),
+                "method1", "sum(java.lang.String,int...)");
+        assertEquals("Wrong class count", 2, result.getClassCount());
+        assertEquals("Wrong method count", 2, result.getMethodCount());
+        assertEquals("Wrong skipped count", 0, result.getSkippedCount());
+        assertEquals("Wrong synthetic invocation count", 0, result.getSyntheticInvocationCount());
+
+        result = FindAndInvoke.warmUp(Arrays.asList(ExceptionClass.class));
+        assertEquals("Not every method was warmed up", ExceptionClass.class.getMethods().length, result.getMethodCount());
+    }
+
+    /**
+     * Test warming up on a provided pool, with
+     * synthetic invocations.
+     */
+    @Test
+    public void testWarmUpSynthetic() throws Exception{
+        ForkJoinPool pool = new ForkJoinPool(2);
+        DispatchStatistics statistics = DispatchMetrics.enableStatistics();
+        ResolutionCache cache = FindAndInvoke.getResolutionCache();
+        long lookups = cache.getHitCount() + cache.getMissCount();
+        try{
+            WarmUpResult result = FindAndInvoke.warmUp(pool, 100, Arrays.asList(VarArgsClass.class), "join");
+            assertEquals("Wrong method count", 1, result.getMethodCount());
+            assertEquals("Wrong synthetic invocation count", 100, result.getSyntheticInvocationCount());
+            assertEquals("Synthetic invocations used the global cache", lookups, cache.getHitCount() + cache.getMissCount());
+            assertEquals("Synthetic invocations were recorded", 0, statistics.getInvocationCount());
+            assertEquals("Synthetic resolutions were recorded", 0, statistics.getResolutionCount());
+            assertEquals("Warmed up method doesn't invoke", "a,b",
+                    FindAndInvoke.findAndInvokeMethod(new VarArgsClass(), "join", ",", "a", "b"));
+        }
+        finally{
+            pool.shutdown();
+            DispatchMetrics.disable();
+        }
+
+        try{
+            FindAndInvoke.warmUp(Arrays.asList(VarArgsClass.class), "join(java.lang.String");
+            fail("No exception thrown for malformed signature");
+        }
+        catch(IllegalArgumentException ex){
+            //Expected
+        }
+    }
+
     private class TestClass1{
 
         public String method1(String s1, String s2){
@@ -43,6 +420,51 @@ public class FindAndInvokeTest {
 
     }
 
+    private class ExceptionClass{
+
+        public void throwRuntime(String message){
+            throw new IllegalStateException(message);
+        }
+
+        public void throwChecked(String message) throws IOException{
+            throw new IOException(message);
+        }
+
+        public void doNothing(){}
+
+    }
+
+    private class PrimitiveClass{
+
+        public double add(int i, double d){
+            return i + d;
+        }
+
+        public String sum(String label, int...values){
+            int total = 0;
+            for(int value : values){
+                total += value;
+            }
+            return label + " " + total;
+        }
+
+    }
+
+    private class VarArgsClass{
+
+        public String join(String separator, String...values){
+            StringBuilder builder = new StringBuilder();
+            for(int i = 0; i < values.length; i++){
+                if(i > 0){
+                    builder.append(separator);
+                }
+                builder.append(values[i]);
+            }
+            return builder.toString();
+        }
+
+    }
+
     private class TestClass2{
 
         public String method2(String s1, Integer i1){
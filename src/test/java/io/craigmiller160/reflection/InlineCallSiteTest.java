@@ -0,0 +1,155 @@
+package io.craigmiller160.reflection;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the per-site inline caches created
+ * by FindAndInvoke.callSite().
+ */
+public class InlineCallSiteTest {
+
+    /**
+     * Test that a call site invokes the right method,
+     * and caches it after the first invocation.
+     */
+    @Test
+    public void testMonomorphic() throws Exception{
+        InlineCallSite site = FindAndInvoke.callSite("handle");
+        assertEquals("Site should start empty", 0, site.getEntryCount());
+        assertEquals("Wrong result", "String: A", site.invoke(new Handler(), "A"));
+        assertEquals("Wrong result on repeat", "String: B", site.invoke(new Handler(), "B"));
+        assertEquals("Wrong number of entries", 1, site.getEntryCount());
+    }
+
+    /**
+     * Test that a call site caches each combination of
+     * argument classes separately, and picks the right
+     * overload for each.
+     */
+    @Test
+    public void testPolymorphic() throws Exception{
+        InlineCallSite site = FindAndInvoke.callSite("handle");
+        Handler handler = new Handler();
+        assertEquals("Wrong String result", "String: A", site.invoke(handler, "A"));
+        assertEquals("Wrong Integer result", "Integer: 1", site.invoke(handler, 1));
+        assertEquals("Wrong String result on repeat", "String: B", site.invoke(handler, "B"));
+        assertEquals("Wrong Integer result on repeat", "Integer: 2", site.invoke(handler, 2));
+        assertEquals("Wrong number of entries", 2, site.getEntryCount());
+        assertFalse("Site should not be megamorphic", site.isMegamorphic());
+    }
+
+    /**
+     * Test that a call site becomes megamorphic after seeing
+     * too many combinations of classes, and keeps working.
+     */
+    @Test
+    public void testMegamorphic() throws Exception{
+        InlineCallSite site = FindAndInvoke.callSite("handle");
+        Handler handler = new Handler();
+        Object[] args = {"A", 1, 2L, 3.0, 'c'};
+        for(Object arg : args){
+            site.invoke(handler, arg);
+        }
+        assertTrue("Site should be megamorphic", site.isMegamorphic());
+        assertEquals("Megamorphic site should have no entries", 0, site.getEntryCount());
+        assertEquals("Wrong result after megamorphic", "String: Z", site.invoke(handler, "Z"));
+        assertEquals("Wrong Object result after megamorphic", "Character: c", site.invoke(handler, 'c'));
+    }
+
+    /**
+     * Test that a call site throws an exception when
+     * no method matches.
+     */
+    @Test(expected = NoSuchMethodException.class)
+    public void testNoMatch() throws Exception{
+        FindAndInvoke.callSite("handle").invoke(new Handler(), "A", "B");
+    }
+
+    /**
+     * Test that a call site converts varArgs correctly
+     * when invoking a cached method.
+     */
+    @Test
+    public void testVarArgs() throws Exception{
+        InlineCallSite site = FindAndInvoke.callSite("join");
+        Handler handler = new Handler();
+        assertEquals("Wrong result", "A2", site.invoke(handler, "A", "B", "C"));
+        assertEquals("Wrong result on repeat", "D2", site.invoke(handler, "D", "E", "F"));
+        assertEquals("Wrong result with an array", "G1", site.invoke(handler, "G", new String[]{"H"}));
+        assertEquals("Wrong number of entries", 2, site.getEntryCount());
+    }
+
+    /**
+     * Test that invocations answered by the call site's own
+     * cache are still reported to the DispatchListener.
+     */
+    @Test
+    public void testHitsReported() throws Exception{
+        InlineCallSite site = FindAndInvoke.callSite("join");
+        Handler handler = new Handler();
+        DispatchStatistics statistics = DispatchMetrics.enableStatistics();
+        try{
+            site.invoke(handler, "A", "B");
+            site.invoke(handler, "C", "D");
+            assertEquals("Wrong resolution count", 2, statistics.getResolutionCount());
+            assertTrue("Cached invocation wasn't a cache hit", statistics.getCacheHitCount() >= 1);
+            assertEquals("Wrong conversion count", 2, statistics.getConversionCount());
+            assertEquals("Wrong invocation count", 2, statistics.getInvocationCount());
+        }
+        finally{
+            DispatchMetrics.disable();
+        }
+    }
+
+    /**
+     * Test that a call site doesn't cache classes that could be
+     * unloaded, so it never keeps their ClassLoader alive.
+     */
+    @Test
+    public void testPluginClassNotCached() throws Exception{
+        URL testClasses = InlineCallSiteTest.class.getProtectionDomain().getCodeSource().getLocation();
+        try(URLClassLoader loader = new URLClassLoader(new URL[]{testClasses}, null)){
+            Object plugin = loader.loadClass(Handler.class.getName()).getDeclaredConstructor().newInstance();
+            InlineCallSite site = FindAndInvoke.callSite("handle");
+            assertEquals("Wrong result", "String: A", site.invoke(plugin, "A"));
+            assertEquals("Wrong result on repeat", "String: B", site.invoke(plugin, "B"));
+            assertEquals("Plugin class was cached", 0, site.getEntryCount());
+        }
+    }
+
+    public static class Handler{
+
+        public String handle(String s){
+            return "String: " + s;
+        }
+
+        public String handle(Integer i){
+            return "Integer: " + i;
+        }
+
+        public String handle(Long l){
+            return "Long: " + l;
+        }
+
+        public String handle(Double d){
+            return "Double: " + d;
+        }
+
+        public String handle(Character c){
+            return "Character: " + c;
+        }
+
+        public String join(String first, String...rest){
+            return first + rest.length;
+        }
+
+    }
+
+}
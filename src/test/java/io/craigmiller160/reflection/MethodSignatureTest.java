@@ -0,0 +1,70 @@
+package io.craigmiller160.reflection;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for parsing full method signatures.
+ */
+public class MethodSignatureTest {
+
+    /**
+     * Test that signatures are parsed into the same
+     * canonical key as the method they name.
+     */
+    @Test
+    public void testParse() throws Exception{
+        MethodSignature signature = MethodSignature.parse(" process( java.lang.String , int... ) ");
+        assertEquals("Wrong name", "process", signature.getName());
+        assertEquals("Wrong key", "process(java.lang.String,int[])", signature.getKey());
+        assertEquals("Key doesn't match method", MethodSignature.keyOf(TestClass.class.getMethod("process", String.class, int[].class)),
+                signature.getKey());
+        assertEquals("Wrong key with no params", "run()", MethodSignature.parse("run()").getKey());
+    }
+
+    /**
+     * Test that parsed signatures are cached.
+     */
+    @Test
+    public void testCached(){
+        assertSame("Signature wasn't cached", MethodSignature.parse("cached(int)"), MethodSignature.parse("cached(int)"));
+    }
+
+    /**
+     * Test telling full signatures from names.
+     */
+    @Test
+    public void testIsFullSignature(){
+        assertTrue("Full signature not detected", MethodSignature.isFullSignature("process(int)"));
+        assertFalse("Name detected as full signature", MethodSignature.isFullSignature("process"));
+    }
+
+    /**
+     * Test that malformed signatures are rejected.
+     */
+    @Test
+    public void testMalformed(){
+        String[] malformed = {"(int)", "process(int", "process(int,)", "process(int...,int)", "process(int))"};
+        for(String sig : malformed){
+            try{
+                MethodSignature.parse(sig);
+                fail("No exception thrown for " + sig);
+            }
+            catch(IllegalArgumentException ex){
+                //Expected
+            }
+        }
+    }
+
+    public static class TestClass{
+
+        public void process(String s, int...values){}
+
+    }
+
+}
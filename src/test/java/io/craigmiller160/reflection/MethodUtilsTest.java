@@ -5,7 +5,10 @@ import org.junit.Test;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -290,6 +293,101 @@ public class MethodUtilsTest {
         assertEquals("Number Array Third Element Wrong Value", numArr[2], 46);
     }
 
+    /**
+     * Test converting for varArgs with a buffer, which
+     * should be used for the converted params rather than
+     * a new array.
+     */
+    @Test
+    public void testConvertForVarArgsWithBuffer(){
+        Method method = getMethod("method3");
+        assertNotNull("Method for test wasn't retrieved", method);
+
+        Object[] buffer = new Object[2];
+        Object[] params = MethodUtils.convertParamsForVarArgsMethod(method, buffer, "Message", "One", "Two");
+        assertSame("Buffer wasn't used", buffer, params);
+        assertEquals("First param has wrong content", "Message", params[0]);
+        assertArrayEquals("VarArgs param has wrong content", new String[]{"One", "Two"}, (String[]) params[1]);
+    }
+
+    /**
+     * Test converting for varArgs with a buffer that is
+     * the wrong size, which should be ignored.
+     */
+    @Test
+    public void testConvertForVarArgsWithWrongSizeBuffer(){
+        Method method = getMethod("method3");
+        assertNotNull("Method for test wasn't retrieved", method);
+
+        Object[] buffer = new Object[3];
+        Object[] params = MethodUtils.convertParamsForVarArgsMethod(method, buffer, "Message", "One", "Two");
+        assertNotSame("Wrong size buffer was used", buffer, params);
+        assertEquals("Params wrong size", 2, params.length);
+    }
+
+    /**
+     * Test converting for a method whose only param is
+     * varArgs, when no params are provided at all.
+     */
+    @Test
+    public void testConvertForVarArgsOnlyEmpty(){
+        Method method = getMethod("method6");
+        assertNotNull("Method for test wasn't retrieved", method);
+        Object[] params = MethodUtils.convertParamsForVarArgsMethod(method);
+        assertEquals("Params wrong size", 1, params.length);
+        assertEquals("VarArgs param isn't a String[]", String[].class, params[0].getClass());
+        assertEquals("VarArgs param wrong size", 0, ((String[]) params[0]).length);
+    }
+
+    /**
+     * Test validating a method with primitive params,
+     * which should accept the boxed types of the primitives,
+     * and the boxed types of any primitives they can be
+     * widened from.
+     */
+    @Test
+    public void testPrimitiveParams(){
+        Method method = getMethod("method7");
+        assertNotNull("Method for test wasn't retrieved", method);
+        assertTrue(MethodUtils.isValidInvocation(method, 1, 2.5));
+        assertTrue(MethodUtils.isValidInvocation(method, 1, 2));
+        assertTrue(MethodUtils.isValidInvocation(method, (short) 1, 2L));
+        assertFalse(MethodUtils.isValidInvocation(method, 1L, 2.5));
+        assertFalse(MethodUtils.isValidInvocation(method, "One", 2.5));
+        assertFalse(MethodUtils.isValidInvocation(method, true, 2.5));
+    }
+
+    /**
+     * Test validating and converting a varArgs method
+     * with a primitive component type.
+     */
+    @Test
+    public void testPrimitiveVarArgs(){
+        Method method = getMethod("method8");
+        assertNotNull("Method for test wasn't retrieved", method);
+        assertTrue(MethodUtils.isValidInvocation(method, "Sum", 1, 2, 3));
+        assertTrue(MethodUtils.isValidInvocation(method, "Sum", new int[]{1, 2, 3}));
+        assertFalse(MethodUtils.isValidInvocation(method, "Sum", 1, 2.5));
+
+        Object[] params = MethodUtils.convertParamsForVarArgsMethod(method, "Sum", 1, 2, 3);
+        assertEquals("Params wrong size", 2, params.length);
+        assertArrayEquals("VarArgs param has wrong content", new int[]{1, 2, 3}, (int[]) params[1]);
+    }
+
+    /**
+     * Test validating with the types of the arguments
+     * rather than the arguments themselves.
+     */
+    @Test
+    public void testValidInvocationForTypes(){
+        Method method = getMethod("method5");
+        assertNotNull("Method for test wasn't retrieved", method);
+        assertTrue(MethodUtils.isValidInvocationForTypes(method, String.class, Integer.class, Double.class));
+        assertTrue(MethodUtils.isValidInvocationForTypes(method, String.class, Double[].class));
+        assertTrue(MethodUtils.isValidInvocationForTypes(method, String.class));
+        assertFalse(MethodUtils.isValidInvocationForTypes(method, String.class, String.class));
+    }
+
     /**
      * Simple utility method for the regularly used operation
      * to get the method to test in the test methods.
@@ -350,6 +448,18 @@ public class MethodUtilsTest {
             return o1.toString() + " " + Arrays.toString(nums);
         }
 
+        public String method6(String...values){
+            return Arrays.toString(values);
+        }
+
+        public double method7(int i, double d){
+            return i + d;
+        }
+
+        public String method8(String label, int...values){
+            return label + " " + Arrays.toString(values);
+        }
+
     }
 
 }
@@ -0,0 +1,129 @@
+package io.craigmiller160.reflection;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+
+public class OverloadIndexTest {
+
+    /**
+     * Test that the bucketed index always picks the
+     * same overload as validating every overload in
+     * getMethods() order would.
+     */
+    @Test
+    public void testMatchesLinearScan(){
+        Object[][] argSets = new Object[][]{
+                {},
+                {"One"},
+                {1},
+                {"One", "Two"},
+                {"One", 2},
+                {1, 2},
+                {"One", "Two", "Three"},
+                {"One", 2, 3},
+                {"One", new String[]{"Two"}},
+                {1.5, 2.5, 3.5, 4.5}
+        };
+
+        OverloadIndex index = MethodIndex.forClass(TestClass.class).getOverloads("handle");
+        for(Object[] args : argSets){
+            int match = index.findMatch(false, args);
+            Method expected = linearScan(args);
+            Method actual = match >= 0 ? index.getTemplate(match).getMethod() : null;
+            assertEquals("Wrong overload for " + args.length + " args", expected, actual);
+        }
+    }
+
+    /**
+     * Test matching on argument types rather
+     * than arguments.
+     */
+    @Test
+    public void testMatchTypes(){
+        OverloadIndex index = MethodIndex.forClass(TestClass.class).getOverloads("handle");
+        int match = index.findMatch(true, String.class, Integer.class);
+
+        Method expected = null;
+        for(Method m : index.getMethods()){
+            if(MethodUtils.isValidInvocationForTypes(m, String.class, Integer.class)){
+                expected = m;
+                break;
+            }
+        }
+        assertEquals("Wrong overload", expected, index.getTemplate(match).getMethod());
+    }
+
+    /**
+     * Test counting the overloads that could
+     * take a number of arguments.
+     */
+    @Test
+    public void testCountPlausible(){
+        OverloadIndex index = MethodIndex.forClass(TestClass.class).getOverloads("handle");
+        //handle(String...) and handle(Object...) can take any number, handle(String, Number...) needs at least 1
+        assertEquals("Wrong count for 0 args", 2, index.countPlausible(0));
+        assertEquals("Wrong count for 1 arg", 5, index.countPlausible(1));
+        assertEquals("Wrong count for 2 args", 5, index.countPlausible(2));
+        assertEquals("Wrong count for 4 args", 3, index.countPlausible(4));
+    }
+
+    /**
+     * Test that a name with no methods has
+     * an empty index.
+     */
+    @Test
+    public void testEmpty(){
+        OverloadIndex index = MethodIndex.forClass(TestClass.class).getOverloads("noSuchMethod");
+        assertEquals("Index isn't empty", 0, index.size());
+        assertEquals("Empty index matched", -1, index.findMatch(false, "One"));
+    }
+
+    private Method linearScan(Object[] args){
+        for(Method m : MethodIndex.forClass(TestClass.class).getMethods("handle")){
+            if(MethodUtils.isValidInvocation(m, args)){
+                return m;
+            }
+        }
+        return null;
+    }
+
+    public static class TestClass{
+
+        public String handle(String s){
+            return s;
+        }
+
+        public String handle(Integer i){
+            return "" + i;
+        }
+
+        public String handle(String s, String s2){
+            return s + s2;
+        }
+
+        public String handle(String s, Integer i){
+            return s + i;
+        }
+
+        public String handle(Object o1, Object o2, Object o3){
+            return "three";
+        }
+
+        public String handle(String...values){
+            return "varArgs";
+        }
+
+        public String handle(String s, Number...nums){
+            return "numbers";
+        }
+
+        public String handle(Object...values){
+            return "objects";
+        }
+
+    }
+
+}
@@ -0,0 +1,192 @@
+package io.craigmiller160.reflection;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class PreparedInvokerTest {
+
+    /**
+     * Test preparing and invoking a simple method
+     * on several different objects.
+     */
+    @Test
+    public void testSimpleMethod() throws Exception{
+        PreparedInvoker invoker = FindAndInvoke.prepare(TestClass.class, "method1", String.class, Integer.class);
+        assertEquals("Result value is wrong", "A One 1", invoker.invoke(new TestClass("A"), "One", 1));
+        assertEquals("Result value is wrong", "B Two 2", invoker.invoke(new TestClass("B"), "Two", 2));
+    }
+
+    /**
+     * Test preparing a varArgs method, where the
+     * trailing arguments need to be packed into an array,
+     * including repeat invocations that reuse the buffer.
+     */
+    @Test
+    public void testVarArgsPacked() throws Exception{
+        PreparedInvoker invoker = FindAndInvoke.prepare(TestClass.class, "method2", String.class, Integer.class, Double.class);
+        assertEquals("Result value is wrong", "A One [1, 2.5]", invoker.invoke(new TestClass("A"), "One", 1, 2.5));
+        assertEquals("Result value is wrong on repeat", "B Two [3, 4.5]", invoker.invoke(new TestClass("B"), "Two", 3, 4.5));
+    }
+
+    /**
+     * Test preparing a varArgs method, where the
+     * varArgs are provided as an array already.
+     */
+    @Test
+    public void testVarArgsArray() throws Exception{
+        PreparedInvoker invoker = FindAndInvoke.prepare(TestClass.class, "method2", String.class, Integer[].class);
+        assertEquals("Result value is wrong", "A One [1, 2]", invoker.invoke(new TestClass("A"), "One", new Integer[]{1, 2}));
+    }
+
+    /**
+     * Test preparing a varArgs method, where no
+     * varArgs are provided.
+     */
+    @Test
+    public void testVarArgsEmpty() throws Exception{
+        PreparedInvoker invoker = FindAndInvoke.prepare(TestClass.class, "method2", String.class);
+        assertEquals("Result value is wrong", "A One []", invoker.invoke(new TestClass("A"), "One"));
+    }
+
+    /**
+     * Test preparing a method that takes primitive
+     * params.
+     */
+    @Test
+    public void testPrimitiveParams() throws Exception{
+        PreparedInvoker invoker = FindAndInvoke.prepare(TestClass.class, "add", int.class, int.class);
+        assertEquals("Result value is wrong", 5, invoker.invoke(new TestClass("A"), 2, 3));
+    }
+
+    /**
+     * Test that primitive argument types widen to the
+     * method's params the same way boxed arguments do,
+     * including for a full signature.
+     */
+    @Test
+    public void testPrimitiveWidening() throws Exception{
+        PreparedInvoker scale = FindAndInvoke.prepare(TestClass.class, "scale", int.class);
+        assertEquals("Result value is wrong", 10L, scale.invoke(new TestClass("A"), 5));
+
+        PreparedInvoker half = FindAndInvoke.prepare(TestClass.class, "half(double)", int.class);
+        assertEquals("Full signature result value is wrong", 2.5, half.invoke(new TestClass("A"), 5));
+
+        PreparedInvoker method1 = FindAndInvoke.prepare(TestClass.class, "method1", String.class, int.class);
+        assertEquals("Boxed result value is wrong", "A B 1", method1.invoke(new TestClass("A"), "B", 1));
+    }
+
+    /**
+     * Test that preparing a method that doesn't
+     * match throws an exception.
+     */
+    @Test(expected = NoSuchMethodException.class)
+    public void testNoMatch() throws Exception{
+        FindAndInvoke.prepare(TestClass.class, "method1", Integer.class, Integer.class);
+    }
+
+    /**
+     * Test that invoking the prepared method on an
+     * object of the wrong type throws an exception.
+     */
+    @Test
+    public void testWrongTarget() throws Exception{
+        PreparedInvoker invoker = FindAndInvoke.prepare(TestClass.class, "method1", String.class, Integer.class);
+        try{
+            invoker.invoke("Not a TestClass", "One", 1);
+            fail("No exception thrown for wrong target");
+        }
+        catch(IllegalArgumentException ex){
+            //Expected
+        }
+    }
+
+    /**
+     * Test invoking methods through the typed,
+     * non-boxing invoke methods.
+     */
+    @Test
+    public void testTypedInvoke() throws Exception{
+        TestClass target = new TestClass("A");
+        PreparedInvoker add = FindAndInvoke.prepare(TestClass.class, "add", int.class, int.class);
+        assertEquals("Int result is wrong", 5, add.invokeInt(target, 2, 3));
+
+        PreparedInvoker scale = FindAndInvoke.prepare(TestClass.class, "scale", long.class);
+        assertEquals("Long result is wrong", 20L, scale.invokeLong(target, 10L));
+
+        PreparedInvoker half = FindAndInvoke.prepare(TestClass.class, "half", double.class);
+        assertEquals("Double result is wrong", 1.5, half.invokeDouble(target, 3.0), 0.0);
+
+        PreparedInvoker record = FindAndInvoke.prepare(TestClass.class, "record", int.class);
+        record.invokeVoid(target, 7);
+        assertEquals("Void method was not invoked", 7, target.recorded);
+    }
+
+    /**
+     * Test that invoking a method through a typed invoke
+     * method that doesn't fit its signature throws an exception.
+     */
+    @Test
+    public void testTypedInvokeWrongSignature() throws Exception{
+        PreparedInvoker invoker = FindAndInvoke.prepare(TestClass.class, "method1", String.class, Integer.class);
+        try{
+            invoker.invokeInt(new TestClass("A"), 1);
+            fail("No exception thrown for wrong signature");
+        }
+        catch(IllegalArgumentException ex){
+            //Expected
+        }
+    }
+
+    /**
+     * Test binding the prepared method to an object.
+     */
+    @Test
+    public void testBind() throws Exception{
+        PreparedInvoker invoker = FindAndInvoke.prepare(TestClass.class, "method1", String.class, Integer.class);
+        TestClass target = new TestClass("A");
+        ObjectAndMethod oam = invoker.bind(target);
+        assertSame("Wrong object bound", target, oam.getObject());
+        assertEquals("Wrong method bound", invoker.getMethod(), oam.getMethod());
+    }
+
+    public static class TestClass{
+
+        private final String prefix;
+        private int recorded;
+
+        public TestClass(String prefix){
+            this.prefix = prefix;
+        }
+
+        public String method1(String s, Integer i){
+            return prefix + " " + s + " " + i;
+        }
+
+        public String method2(String s, Number...nums){
+            return prefix + " " + s + " " + Arrays.toString(nums);
+        }
+
+        public int add(int i1, int i2){
+            return i1 + i2;
+        }
+
+        public long scale(long l){
+            return l * 2;
+        }
+
+        public double half(double d){
+            return d / 2;
+        }
+
+        public void record(int i){
+            recorded = i;
+        }
+
+    }
+
+}
@@ -0,0 +1,185 @@
+package io.craigmiller160.reflection;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for compiled bean property paths.
+ */
+public class PropertyPathTest {
+
+    /**
+     * Test reading a nested property, including
+     * a boolean property with an "is" getter.
+     */
+    @Test
+    public void testGet() throws Exception{
+        Order order = new Order(new Customer("Bob", new Address("12345")));
+        assertEquals("Wrong nested value", "12345", PropertyPath.compile("customer.address.zip").get(order));
+        assertEquals("Wrong boolean value", true, PropertyPath.compile("customer.active").get(order));
+        assertEquals("Wrong single value", "Bob", PropertyPath.compile("customer.name").get(order));
+    }
+
+    /**
+     * Test that a null property along the path
+     * results in a null value.
+     */
+    @Test
+    public void testGetNullAlongPath() throws Exception{
+        assertNull("Value should be null", PropertyPath.compile("customer.address.zip").get(new Order(null)));
+    }
+
+    /**
+     * Test reading the same path from many objects.
+     */
+    @Test
+    public void testGetAll() throws Exception{
+        PropertyPath path = PropertyPath.compile("customer.name");
+        Order order1 = new Order(new Customer("Bob", null));
+        Order order2 = new Order(new Customer("Sue", null));
+        assertEquals("Wrong values", Arrays.asList("Bob", "Sue"), path.getAll(Arrays.asList(order1, order2)));
+    }
+
+    /**
+     * Test writing a nested property, including
+     * through an overloaded setter.
+     */
+    @Test
+    public void testSet() throws Exception{
+        Order order = new Order(new Customer("Bob", new Address("12345")));
+        PropertyPath zip = PropertyPath.compile("customer.address.zip");
+        zip.set(order, "67890");
+        assertEquals("Value wasn't set", "67890", order.getCustomer().getAddress().getZip());
+        zip.set(order, 11111);
+        assertEquals("Overloaded setter wasn't used", "11111", order.getCustomer().getAddress().getZip());
+
+        try{
+            PropertyPath.compile("customer.name").set(order, 1);
+            fail("No exception thrown for a value of the wrong type");
+        }
+        catch(NoSuchMethodException ex){
+            //Expected
+        }
+    }
+
+    /**
+     * Test setting null, which works through a single
+     * setter but can't pick between overloaded ones.
+     */
+    @Test
+    public void testSetNull() throws Exception{
+        Order order = new Order(new Customer("Bob", new Address("12345")));
+        PropertyPath.compile("customer.name").set(order, null);
+        assertNull("Null wasn't set", order.getCustomer().getName());
+
+        try{
+            PropertyPath.compile("customer.address.zip").set(order, null);
+            fail("No exception thrown for null on overloaded setters");
+        }
+        catch(IllegalArgumentException ex){
+            assertTrue("Wrong exception message", ex.getMessage().startsWith("Cannot set null on property with overloaded setters"));
+        }
+    }
+
+    /**
+     * Test the exceptions for invalid and
+     * missing properties.
+     */
+    @Test
+    public void testErrors() throws Exception{
+        try{
+            PropertyPath.compile("customer..name");
+            fail("No exception thrown for an empty property");
+        }
+        catch(IllegalArgumentException ex){
+            //Expected
+        }
+
+        try{
+            PropertyPath.compile("customer.noSuchProperty").get(new Order(new Customer("Bob", null)));
+            fail("No exception thrown for a missing property");
+        }
+        catch(NoSuchMethodException ex){
+            //Expected
+        }
+
+        try{
+            PropertyPath.compile("customer.name").set(new Order(null), "Sue");
+            fail("No exception thrown for a null property along the path");
+        }
+        catch(IllegalArgumentException ex){
+            //Expected
+        }
+    }
+
+    public static class Order{
+
+        private final Customer customer;
+
+        public Order(Customer customer){
+            this.customer = customer;
+        }
+
+        public Customer getCustomer(){
+            return customer;
+        }
+
+    }
+
+    public static class Customer{
+
+        private String name;
+        private final Address address;
+
+        public Customer(String name, Address address){
+            this.name = name;
+            this.address = address;
+        }
+
+        public String getName(){
+            return name;
+        }
+
+        public void setName(String name){
+            this.name = name;
+        }
+
+        public boolean isActive(){
+            return true;
+        }
+
+        public Address getAddress(){
+            return address;
+        }
+
+    }
+
+    public static class Address{
+
+        private String zip;
+
+        public Address(String zip){
+            this.zip = zip;
+        }
+
+        public String getZip(){
+            return zip;
+        }
+
+        public void setZip(String zip){
+            this.zip = zip;
+        }
+
+        public void setZip(Integer zip){
+            this.zip = String.valueOf(zip);
+        }
+
+    }
+
+}
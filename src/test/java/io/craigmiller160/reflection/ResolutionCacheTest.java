@@ -0,0 +1,170 @@
+package io.craigmiller160.reflection;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ResolutionCacheTest {
+
+    /**
+     * Test that hits and misses are counted
+     * correctly.
+     */
+    @Test
+    public void testHitAndMissCounts(){
+        ResolutionCache cache = new ResolutionCache(10);
+        ResolutionKey key = getKey("method1");
+
+        assertNull("Empty cache returned a value", cache.get(key));
+        cache.put(key, Resolution.noMatch());
+        assertSame("Cached value is wrong", Resolution.noMatch(), cache.get(key));
+
+        assertEquals("Hit count is wrong", 1, cache.getHitCount());
+        assertEquals("Miss count is wrong", 1, cache.getMissCount());
+        assertEquals("Hit rate is wrong", 0.5, cache.getHitRate(), 0.0001);
+    }
+
+    /**
+     * Test that the cache never grows past its maximum
+     * size, and that the least recently used entry is
+     * the one that gets evicted.
+     */
+    @Test
+    public void testLeastRecentlyUsedEviction(){
+        ResolutionCache cache = new ResolutionCache(2);
+        ResolutionKey key1 = getKey("method1");
+        ResolutionKey key2 = getKey("method2");
+        ResolutionKey key3 = getKey("method3");
+
+        cache.put(key1, Resolution.noMatch());
+        cache.put(key2, Resolution.noMatch());
+        //Access key1 so key2 becomes the least recently used
+        cache.get(key1);
+        cache.put(key3, Resolution.noMatch());
+
+        assertEquals("Cache grew past its maximum size", 2, cache.size());
+        assertEquals("Eviction count is wrong", 1, cache.getEvictionCount());
+        assertNotNull("Recently used entry was evicted", cache.get(key1));
+        assertNull("Least recently used entry wasn't evicted", cache.get(key2));
+        assertNotNull("Newest entry was evicted", cache.get(key3));
+    }
+
+    /**
+     * Test that keys built from equal classes
+     * are equal to each other.
+     */
+    @Test
+    public void testKeyEquality(){
+        ResolutionKey key1 = getKey("method1");
+        ResolutionKey key2 = getKey("method1");
+        assertEquals("Keys aren't equal", key1, key2);
+        assertEquals("Key hash codes aren't equal", key1.hashCode(), key2.hashCode());
+    }
+
+    /**
+     * Test that a cache with a maximum size of zero
+     * never stores anything.
+     */
+    @Test
+    public void testZeroSizeCache(){
+        ResolutionCache cache = new ResolutionCache(0);
+        ResolutionKey key = getKey("method1");
+        cache.put(key, Resolution.noMatch());
+        assertNull("Zero size cache stored a value", cache.get(key));
+        assertEquals("Zero size cache has entries", 0, cache.size());
+    }
+
+    /**
+     * Test that invalidating a ClassLoader removes only
+     * the entries that involve its classes.
+     */
+    @Test
+    public void testInvalidate() throws Exception{
+        ResolutionCache cache = new ResolutionCache(10);
+        try(URLClassLoader loader = newPluginLoader()){
+            Class<?> pluginClass = loader.loadClass(Plugin.class.getName());
+            ResolutionKey pluginKey = new ResolutionKey(new Class<?>[]{pluginClass}, "method1", new Class<?>[]{Integer.class});
+            cache.put(pluginKey, Resolution.noMatch());
+            cache.put(getKey("method1"), Resolution.noMatch());
+
+            assertNotNull("Weakened key doesn't match", cache.get(pluginKey));
+            assertEquals("Wrong weak entry count", 1, cache.getFootprint().getWeakEntryCount());
+            assertEquals("Wrong number invalidated for unrelated loader", 0, cache.invalidate(new URLClassLoader(new URL[0], null)));
+            assertEquals("Wrong number invalidated", 1, cache.invalidate(loader));
+            assertNull("Invalidated entry still cached", cache.get(pluginKey));
+            assertNotNull("Unrelated entry was invalidated", cache.get(getKey("method1")));
+        }
+    }
+
+    /**
+     * Test that entries for classes that have been
+     * collected are purged.
+     */
+    @Test
+    public void testCollectedClassPurged() throws Exception{
+        ResolutionCache cache = new ResolutionCache(10);
+        putPluginEntry(cache);
+        assertEquals("Plugin entry not cached", 1, cache.size());
+
+        for(int i = 0; i < 50 && cache.getPurgeCount() == 0; i++){
+            System.gc();
+            Thread.sleep(20);
+            cache.put(getKey("method1"), Resolution.noMatch());
+        }
+        assertEquals("Collected entry wasn't purged", 1, cache.getPurgeCount());
+        assertEquals("Wrong size after purge", 1, cache.size());
+    }
+
+    /**
+     * Test that the footprint reflects the entries
+     * in the cache.
+     */
+    @Test
+    public void testFootprint(){
+        ResolutionCache cache = new ResolutionCache(10);
+        long emptyBytes = cache.getFootprint().getEstimatedBytes();
+        cache.put(getKey("method1"), Resolution.noMatch());
+        cache.put(getKey("method2"), Resolution.noMatch());
+
+        CacheFootprint footprint = cache.getFootprint();
+        assertEquals("Wrong entry count", 2, footprint.getEntryCount());
+        assertEquals("Wrong weak entry count", 0, footprint.getWeakEntryCount());
+        assertEquals("Wrong maximum size", 10, footprint.getMaximumSize());
+        assertTrue("Estimated bytes didn't grow", footprint.getEstimatedBytes() > emptyBytes);
+
+        cache.clear();
+        assertEquals("Entries remain after clear", 0, cache.getFootprint().getEntryCount());
+    }
+
+    private void putPluginEntry(ResolutionCache cache) throws Exception{
+        try(URLClassLoader loader = newPluginLoader()){
+            Class<?> pluginClass = loader.loadClass(Plugin.class.getName());
+            cache.put(new ResolutionKey(new Class<?>[]{pluginClass}, "method1", new Class<?>[0]), Resolution.noMatch());
+        }
+    }
+
+    /**
+     * Create a ClassLoader that loads its own copy of
+     * the test classes, like a plugin would.
+     */
+    private URLClassLoader newPluginLoader(){
+        URL testClasses = ResolutionCacheTest.class.getProtectionDomain().getCodeSource().getLocation();
+        return new URLClassLoader(new URL[]{testClasses}, null);
+    }
+
+    private ResolutionKey getKey(String methodName){
+        return new ResolutionKey(new Class<?>[]{String.class}, methodName, new Class<?>[]{Integer.class});
+    }
+
+    public static class Plugin{
+
+    }
+
+}